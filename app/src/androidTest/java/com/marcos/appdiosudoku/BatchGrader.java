@@ -0,0 +1,243 @@
+package com.marcos.appdiosudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classificação em lote, sem interface: percorre um PuzzleCorpus (arquivo mapeado em memória),
+ * classifica os puzzles em paralelo em um ForkJoinPool e grava uma linha por puzzle, na mesma
+ * ordem do corpus:
+ * <pre>
+ * &lt;puzzle&gt; &lt;dificuldade&gt; &lt;técnica&gt; &lt;soluções&gt; &lt;nós&gt; &lt;retrocessos&gt;
+ * </pre>
+ * Puzzles sem solução e registros inválidos têm "-" na dificuldade e na técnica.
+ */
+public final class BatchGrader {
+    public static final String GRADE_FLAG = "--grade"; // Argumento que ativa a classificação em lote
+    private static final int LINE_LENGTH = BoardCodec.LINE_LENGTH;
+    private static final int CHUNK_SIZE = 1024; // Puzzles por tarefa
+    private static final int MAX_OUTPUT_LINE = 160; // Limite para a linha de saída mais longa possível
+    private static final byte[] INVALID_LINE = new byte[LINE_LENGTH];
+
+    static {
+        Arrays.fill(INVALID_LINE, (byte) '0');
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxInFlight; // Limite de blocos em processamento, para manter a memória estável
+    private final Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+        Worker w = new Worker();
+        workers.add(w);
+        return w;
+    });
+
+    /**
+     * Construtor do classificador em lote.
+     * @param parallelism A quantidade de threads de trabalho.
+     */
+    public BatchGrader(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("A quantidade de threads deve ser positiva: " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxInFlight = parallelism * 4;
+    }
+
+    /**
+     * Estado de cada thread de trabalho: classificador, tabuleiro e contadores reaproveitados.
+     */
+    private static final class Worker {
+        final PuzzleGrader grader = new PuzzleGrader();
+        final Board board = new Board();
+        final LatencyHistogram latency = new LatencyHistogram();
+        final long[] counts = new long[Difficulty.values().length];
+        long invalid;
+    }
+
+    /**
+     * Resultado de uma classificação em lote.
+     */
+    public static final class Report {
+        private final long puzzles;
+        private final Map<Difficulty, Long> counts;
+        private final long invalid;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        Report(long puzzles, Map<Difficulty, Long> counts, long invalid, long elapsedNanos, LatencyHistogram latency) {
+            this.puzzles = puzzles;
+            this.counts = counts;
+            this.invalid = invalid;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long getPuzzles() {
+            return puzzles;
+        }
+
+        /**
+         * Retorna quantos puzzles receberam a dificuldade informada.
+         * @param difficulty A dificuldade.
+         * @return A quantidade de puzzles.
+         */
+        public long getCount(Difficulty difficulty) {
+            return counts.get(difficulty);
+        }
+
+        /**
+         * Retorna quantos registros eram inválidos ou sem solução.
+         * @return A quantidade de puzzles sem classificação.
+         */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Puzzles: %d %s (inválidos/sem solução: %d)%n"
+                            + "Tempo: %.3f s, vazão: %.0f puzzles/s%n"
+                            + "Latência por puzzle: p50 = %.1f us, p99 = %.1f us, máx = %.1f us",
+                    puzzles, counts, invalid,
+                    elapsedNanos / 1e9, elapsedNanos == 0 ? 0 : puzzles * 1e9 / elapsedNanos,
+                    latency.getValueAtPercentile(50) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3,
+                    latency.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Classifica todos os puzzles do corpus e grava o resultado na saída, na mesma ordem.
+     * Os blocos são escritos assim que ficam prontos, com no máximo alguns blocos em processamento.
+     * @param corpus O corpus de puzzles 9x9.
+     * @param out A saída, que recebe uma linha por puzzle.
+     * @return O relatório da execução.
+     * @throws IOException se houver erro de escrita.
+     */
+    public Report run(PuzzleCorpus corpus, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+        long size = corpus.size();
+        for (long first = 0; first < size; first += CHUNK_SIZE) {
+            if (inFlight.size() >= maxInFlight) {
+                // Espera o bloco mais antigo para manter a ordem e limitar a memória
+                out.write(inFlight.poll().join());
+            }
+            long from = first;
+            long to = Math.min(size, first + CHUNK_SIZE);
+            inFlight.add(pool.submit(() -> gradeChunk(corpus, from, to)));
+        }
+        while (!inFlight.isEmpty()) {
+            out.write(inFlight.poll().join());
+        }
+        out.flush();
+        long elapsed = System.nanoTime() - start;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long[] counts = new long[Difficulty.values().length];
+        long invalid = 0;
+        for (Worker w : workers) {
+            latency.merge(w.latency);
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += w.counts[i];
+            }
+            invalid += w.invalid;
+            w.latency.reset();
+            Arrays.fill(w.counts, 0);
+            w.invalid = 0;
+        }
+        Map<Difficulty, Long> byDifficulty = new EnumMap<>(Difficulty.class);
+        for (Difficulty difficulty : Difficulty.values()) {
+            byDifficulty.put(difficulty, counts[difficulty.ordinal()]);
+        }
+        return new Report(size, byDifficulty, invalid, elapsed, latency);
+    }
+
+    private byte[] gradeChunk(PuzzleCorpus corpus, long from, long to) {
+        Worker w = worker.get();
+        byte[] output = new byte[(int) (to - from) * MAX_OUTPUT_LINE];
+        int pos = 0;
+        for (long index = from; index < to; index++) {
+            long t0 = System.nanoTime();
+            PuzzleGrader.Grade grade = null;
+            if (corpus.read(index, w.board.getEngine())) {
+                grade = w.grader.grade(w.board);
+                BoardCodec.writeLine(w.board.getEngine(), output, pos);
+            } else {
+                System.arraycopy(INVALID_LINE, 0, output, pos, LINE_LENGTH);
+            }
+            w.latency.record(System.nanoTime() - t0);
+            pos += LINE_LENGTH;
+
+            output[pos++] = ' ';
+            if (grade == null || grade.getDifficulty() == null) {
+                w.invalid++;
+            } else {
+                w.counts[grade.getDifficulty().ordinal()]++;
+            }
+            String text = grade == null ? "- - 0 0 0" : grade.toString();
+            for (int i = 0; i < text.length(); i++) {
+                output[pos++] = (byte) text.charAt(i);
+            }
+            output[pos++] = '\n';
+        }
+        return Arrays.copyOf(output, pos);
+    }
+
+    /**
+     * Encerra as threads de trabalho.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ponto de entrada da classificação em lote.
+     * Uso: --grade &lt;corpus&gt; &lt;saida&gt; [threads]
+     * @param args Os argumentos após --grade.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: " + GRADE_FLAG + " <corpus> <saida> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        BatchGrader batch = new BatchGrader(threads);
+        try (PuzzleCorpus corpus = PuzzleCorpus.open(Paths.get(args[0]));
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])), 1 << 16)) {
+            Report report = batch.run(corpus, out);
+            System.err.println(report);
+        } catch (IOException e) {
+            System.err.println("Erro na classificação em lote: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            batch.shutdown();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.marcos.appdiosudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo em lote, sem interface: lê um arquivo com um puzzle por linha (81 caracteres,
+ * '0' ou '.' para células vazias), resolve os puzzles em paralelo em um ForkJoinPool
+ * (com roubo de tarefas) e grava as soluções na mesma ordem da entrada.
+ * Linhas inválidas ou puzzles sem solução geram uma linha com 81 zeros.
+ */
+public final class BatchSolver {
+    public static final String BATCH_FLAG = "--batch"; // Argumento que ativa o modo em lote
+    private static final int LINE_LENGTH = BoardCodec.LINE_LENGTH;
+    private static final int CHUNK_SIZE = 1024; // Puzzles por tarefa
+    private static final byte[] NO_SOLUTION = new byte[LINE_LENGTH];
+
+    static {
+        for (int i = 0; i < LINE_LENGTH; i++) {
+            NO_SOLUTION[i] = '0';
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int maxInFlight; // Limite de blocos em processamento, para manter a memória estável
+    private final Queue<Worker> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+        Worker w = new Worker();
+        workers.add(w);
+        return w;
+    });
+
+    /**
+     * Construtor do resolvedor em lote.
+     * @param parallelism A quantidade de threads de trabalho.
+     */
+    public BatchSolver(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("A quantidade de threads deve ser positiva: " + parallelism);
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxInFlight = parallelism * 4;
+    }
+
+    /**
+     * Estado de cada thread de trabalho: resolvedor, tabuleiro e histograma reaproveitados.
+     */
+    private static final class Worker {
+        final SudokuSolver solver = new SudokuSolver();
+        final BoardEngine engine = new BoardEngine();
+        final byte[] solution = new byte[LINE_LENGTH];
+        final LatencyHistogram latency = new LatencyHistogram();
+        long solved;
+        long unsolved;
+    }
+
+    /**
+     * Bloco de linhas da entrada e a saída correspondente.
+     */
+    private static final class Chunk {
+        final byte[] lines = new byte[CHUNK_SIZE * LINE_LENGTH];
+        final boolean[] wellFormed = new boolean[CHUNK_SIZE]; // Linha com exatamente 81 caracteres
+        int count;
+        byte[] output;
+    }
+
+    /**
+     * Resultado de uma execução em lote.
+     */
+    public static final class Report {
+        private final long puzzles;
+        private final long solved;
+        private final long unsolved;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+
+        Report(long puzzles, long solved, long unsolved, long elapsedNanos, LatencyHistogram latency) {
+            this.puzzles = puzzles;
+            this.solved = solved;
+            this.unsolved = unsolved;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        public long getPuzzles() {
+            return puzzles;
+        }
+
+        public long getSolved() {
+            return solved;
+        }
+
+        public long getUnsolved() {
+            return unsolved;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Retorna a vazão da execução.
+         * @return Puzzles por segundo.
+         */
+        public double getPuzzlesPerSecond() {
+            return elapsedNanos == 0 ? 0 : puzzles * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Puzzles: %d (resolvidos: %d, sem solução/inválidos: %d)%n"
+                            + "Tempo: %.3f s, vazão: %.0f puzzles/s%n"
+                            + "Latência por puzzle: p50 = %.1f us, p99 = %.1f us, máx = %.1f us",
+                    puzzles, solved, unsolved,
+                    elapsedNanos / 1e9, getPuzzlesPerSecond(),
+                    latency.getValueAtPercentile(50) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3,
+                    latency.getMax() / 1e3);
+        }
+    }
+
+    /**
+     * Resolve todos os puzzles da entrada e grava as soluções na saída, na mesma ordem.
+     * A leitura avança no máximo alguns blocos à frente da escrita.
+     * @param in A entrada, com um puzzle por linha.
+     * @param out A saída, que recebe uma solução por linha.
+     * @return O relatório da execução.
+     * @throws IOException se houver erro de leitura ou escrita.
+     */
+    public Report run(InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long puzzles = 0;
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        PuzzleLineReader reader = new PuzzleLineReader(in);
+
+        Chunk chunk = new Chunk();
+        int length;
+        while ((length = reader.readLine(chunk.lines, chunk.count * LINE_LENGTH)) >= 0) {
+            chunk.wellFormed[chunk.count++] = length == LINE_LENGTH;
+            puzzles++;
+            if (chunk.count == CHUNK_SIZE) {
+                submit(chunk, inFlight, out);
+                chunk = new Chunk();
+            }
+        }
+        if (chunk.count > 0) {
+            submit(chunk, inFlight, out);
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.poll().join(), out);
+        }
+        out.flush();
+        long elapsed = System.nanoTime() - start;
+
+        LatencyHistogram latency = new LatencyHistogram();
+        long solved = 0;
+        long unsolved = 0;
+        for (Worker w : workers) {
+            latency.merge(w.latency);
+            solved += w.solved;
+            unsolved += w.unsolved;
+            w.latency.reset();
+            w.solved = 0;
+            w.unsolved = 0;
+        }
+        return new Report(puzzles, solved, unsolved, elapsed, latency);
+    }
+
+    /**
+     * Encerra as threads de trabalho.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Chunk chunk, ArrayDeque<ForkJoinTask<Chunk>> inFlight, OutputStream out) throws IOException {
+        if (inFlight.size() >= maxInFlight) {
+            // Espera o bloco mais antigo para manter a ordem e limitar a memória
+            write(inFlight.poll().join(), out);
+        }
+        inFlight.add(pool.submit(() -> solveChunk(chunk)));
+    }
+
+    private Chunk solveChunk(Chunk chunk) {
+        Worker w = worker.get();
+        byte[] output = new byte[chunk.count * (LINE_LENGTH + 1)];
+        for (int i = 0; i < chunk.count; i++) {
+            int offset = i * (LINE_LENGTH + 1);
+            long t0 = System.nanoTime();
+            boolean ok = chunk.wellFormed[i]
+                    && BoardCodec.parseLine(chunk.lines, i * LINE_LENGTH, w.engine)
+                    && w.solver.solve(w.engine, 1, w.solution) > 0;
+            w.latency.record(System.nanoTime() - t0);
+            if (ok) {
+                for (int c = 0; c < LINE_LENGTH; c++) {
+                    output[offset + c] = (byte) ('0' + w.solution[c]);
+                }
+                w.solved++;
+            } else {
+                System.arraycopy(NO_SOLUTION, 0, output, offset, LINE_LENGTH);
+                w.unsolved++;
+            }
+            output[offset + LINE_LENGTH] = '\n';
+        }
+        chunk.output = output;
+        return chunk;
+    }
+
+    private static void write(Chunk chunk, OutputStream out) throws IOException {
+        out.write(chunk.output);
+    }
+
+    /**
+     * Ponto de entrada do modo em lote.
+     * Uso: --batch &lt;entrada&gt; &lt;saida&gt; [threads]
+     * @param args Os argumentos após --batch.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: " + BATCH_FLAG + " <entrada> <saida> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        BatchSolver batch = new BatchSolver(threads);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(args[0])), 1 << 16);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])), 1 << 16)) {
+            Report report = batch.run(in, out);
+            System.err.println(report);
+        } catch (IOException e) {
+            System.err.println("Erro no modo em lote: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            batch.shutdown();
+        }
+    }
+}
@@ -4,101 +4,155 @@ package com.marcos.appdiosudoku;
  * Representa o tabuleiro do Sudoku e contém a lógica do jogo.
  */
 public class Board {
-    private Space[][] spaces; // Matriz 9x9 de objetos Space
-    public static final int SIZE = 9; // Tamanho do tabuleiro (9x9)
+    private final BoardEngine engine; // Motor de restrições com máscaras de bits
+    private Space[] spaces; // Objetos Space criados sob demanda como visões sobre o motor
+    private final int size; // Tamanho deste tabuleiro (9 no Sudoku tradicional)
+    private boolean permissive; // Aceita valores que conflitam, registrando os conflitos
+    private PencilMarks notes; // Anotações do jogador, criadas no primeiro uso
+    public static final int SIZE = 9; // Tamanho do tabuleiro tradicional (9x9)
+
+    // Modo de depuração: confere a vitória incremental contra a varredura completa
+    // Ative com -Dsudoku.debugWin=true
+    private static final boolean DEBUG_VERIFY_WIN = Boolean.getBoolean("sudoku.debugWin");
 
     /**
      * Construtor que inicializa um tabuleiro de Sudoku vazio.
      */
     public Board() {
-        spaces = new Space[SIZE][SIZE];
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                spaces[row][col] = new Space(0, false); // Inicializa com valor 0 e não fixo
-            }
+        this(new BoardEngine());
+    }
+
+    /**
+     * Construtor que inicializa um tabuleiro vazio de ordem n, com blocos n x n.
+     * Ordem 2 gera um tabuleiro 4x4, ordem 3 o 9x9 tradicional, ordem 4 o 16x16, e assim até 6 (36x36).
+     * @param order A ordem do tabuleiro (2 a 6).
+     */
+    public Board(int order) {
+        this(new BoardEngine(order));
+    }
+
+    private Board(BoardEngine engine) {
+        this.engine = engine;
+        this.size = engine.getSize();
+    }
+
+    /**
+     * Retorna o tamanho do tabuleiro.
+     * @return A quantidade de linhas (e de colunas), por exemplo 9.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retorna o tamanho do bloco.
+     * @return A quantidade de linhas (e de colunas) de cada bloco, por exemplo 3.
+     */
+    public int getBoxSize() {
+        return engine.getGeometry().getOrder();
+    }
+
+    /**
+     * Ativa ou desativa o modo permissivo.
+     * No modo permissivo, setValue grava também valores que repetem o dígito de uma vizinha, e o
+     * tabuleiro mantém o conjunto de conflitos (ver getConflicts()) a cada escrita.
+     * Desativar o modo não apaga os valores em conflito já gravados.
+     * @param permissive Verdadeiro para aceitar valores em conflito.
+     */
+    public void setPermissive(boolean permissive) {
+        this.permissive = permissive;
+        if (permissive) {
+            engine.enableConflictTracking();
         }
     }
 
+    public boolean isPermissive() {
+        return permissive;
+    }
+
+    /**
+     * Retorna o conjunto de conflitos do tabuleiro, ativando-o se necessário.
+     * Depois de ativado, é mantido a cada escrita, mesmo fora do modo permissivo.
+     * @return O conjunto de conflitos.
+     */
+    public ConflictTracker getConflicts() {
+        return engine.enableConflictTracking();
+    }
+
+    /**
+     * Retorna as anotações (candidatos a lápis) do jogador, criando-as se necessário.
+     * Cada valor gravado por setValue retira o dígito das anotações das vizinhas.
+     * @return As anotações deste tabuleiro.
+     */
+    public PencilMarks getNotes() {
+        if (notes == null) {
+            notes = new PencilMarks(engine.getGeometry());
+        }
+        return notes;
+    }
+
+    /**
+     * Retorna as anotações sem criá-las.
+     * @return As anotações, ou null se o jogador ainda não anotou nada.
+     */
+    PencilMarks peekNotes() {
+        return notes;
+    }
+
     /**
      * Define o valor de um espaço específico no tabuleiro.
      * Realiza validação para garantir que o movimento é válido e que o espaço não é fixo.
-     * @param row A linha do espaço (0-8).
-     * @param col A coluna do espaço (0-8).
-     * @param value O valor a ser definido (1-9), ou 0 para limpar o espaço.
-     * @return Verdadeiro se o valor foi definido com sucesso e é válido, falso caso contrário.
+     * No modo permissivo, um valor que conflita com uma vizinha também é gravado.
+     * Um valor gravado apaga as anotações da célula e retira o dígito das anotações das vizinhas.
+     * @param row A linha do espaço (0 até getSize() - 1).
+     * @param col A coluna do espaço (0 até getSize() - 1).
+     * @param value O valor a ser definido (1 até getSize()), ou 0 para limpar o espaço.
+     * @return Verdadeiro se o valor foi definido com sucesso e é válido (no modo permissivo,
+     *     verdadeiro se o valor foi gravado), falso caso contrário.
      */
     public boolean setValue(int row, int col, int value) {
-        if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
             System.err.println("Coordenadas fora do tabuleiro: (" + row + ", " + col + ")");
             return false;
         }
 
-        Space space = spaces[row][col];
-        if (space.isFixed()) {
+        int cell = row * size + col;
+        if (engine.isFixed(cell)) {
             // Não permite alterar valores fixos
             return false;
         }
 
-        if (value < 0 || value > 9) {
-            System.err.println("Valor inválido: " + value + ". Deve ser entre 0 e 9.");
+        if (value < 0 || value > size) {
+            System.err.println("Valor inválido: " + value + ". Deve ser entre 0 e " + size + ".");
             return false;
         }
 
-        // Se o valor for 0, limpa o espaço sem validação
-        if (value == 0) {
-            space.setValue(0);
-            return true;
-        }
-
-        // Temporariamente define o valor para validar
-        int oldValue = space.getValue();
-        space.setValue(value);
-
-        if (isValid(row, col, value)) {
-            return true;
+        boolean placed;
+        if (permissive) {
+            engine.set(cell, value); // Grava mesmo em conflito; o ConflictTracker registra os pares
+            placed = true;
         } else {
-            // Se o valor não for válido, reverte para o valor antigo
-            space.setValue(oldValue);
-            return false;
+            // O motor valida com as máscaras de linha, coluna e bloco e só grava se o valor for válido
+            placed = engine.place(cell, value);
+        }
+        if (placed && notes != null) {
+            notes.placed(cell, value);
         }
+        return placed;
     }
 
     /**
-     * Verifica se um determinado valor é válido na posição (row, col) de acordo com as regras do Sudoku.
-     * Esta função assume que o valor já foi temporariamente colocado na célula.
-     * @param row A linha do espaço.
-     * @param col A coluna do espaço.
-     * @param value O valor a ser verificado.
-     * @return Verdadeiro se o valor é válido na posição, falso caso contrário.
+     * Grava um valor sem validar, para desfazer e refazer movimentos do histórico: o estado
+     * restaurado já existiu, mesmo que repita o dígito de uma vizinha. Como em setValue(), um
+     * valor gravado apaga as anotações da célula e retira o dígito das vizinhas.
+     * @param cell O índice da célula.
+     * @param value O valor (0 até getSize()).
      */
-    private boolean isValid(int row, int col, int value) {
-        // Verifica a linha
-        for (int c = 0; c < SIZE; c++) {
-            if (c != col && spaces[row][c].getValue() == value) {
-                return false;
-            }
-        }
-
-        // Verifica a coluna
-        for (int r = 0; r < SIZE; r++) {
-            if (r != row && spaces[r][col].getValue() == value) {
-                return false;
-            }
-        }
-
-        // Verifica o bloco 3x3
-        int startRow = row - row % 3;
-        int startCol = col - col % 3;
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                if (startRow + r != row || startCol + c != col) { // Garante que não verifica a própria célula
-                    if (spaces[startRow + r][startCol + c].getValue() == value) {
-                        return false;
-                    }
-                }
-            }
+    void restoreValue(int cell, int value) {
+        engine.set(cell, value);
+        if (notes != null) {
+            notes.placed(cell, value);
         }
-        return true;
     }
 
     /**
@@ -108,10 +162,28 @@ public class Board {
      * @return O objeto Space.
      */
     public Space getSpace(int row, int col) {
-        if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
             return null; // Ou lançar uma exceção, dependendo da necessidade
         }
-        return spaces[row][col];
+        if (spaces == null) {
+            spaces = new Space[size * size];
+        }
+        int cell = row * size + col;
+        Space space = spaces[cell];
+        if (space == null) {
+            space = new Space(engine, cell);
+            spaces[cell] = space;
+        }
+        return space;
+    }
+
+    /**
+     * Retorna o motor de restrições por trás deste tabuleiro.
+     * Usado por solvers e validadores que precisam do caminho rápido, sem objetos Space.
+     * @return O BoardEngine deste tabuleiro.
+     */
+    public BoardEngine getEngine() {
+        return engine;
     }
 
     /**
@@ -119,44 +191,87 @@ public class Board {
      * @return Verdadeiro se o Sudoku está resolvido, falso caso contrário.
      */
     public boolean checkWin() {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                Space space = spaces[row][col];
-                if (space.getValue() == 0 || !isValid(row, col, space.getValue())) {
-                    return false; // Se houver espaço vazio ou valor inválido, não está resolvido
-                }
-            }
+        // Os contadores de células preenchidas e de conflitos são mantidos pelo motor a cada setValue
+        boolean solved = engine.isSolved();
+        if (DEBUG_VERIFY_WIN && solved != checkWinFullScan()) {
+            throw new IllegalStateException("Contadores de vitória divergem da varredura completa: "
+                    + "preenchidas=" + engine.getFilledCount() + ", conflitos=" + engine.getConflictCount());
         }
-        return true; // Se todas as células estiverem preenchidas e válidas
+        return solved;
+    }
+
+    /**
+     * Verifica a vitória percorrendo todo o tabuleiro, sem usar os contadores incrementais.
+     * Mais lento que checkWin(); usado para depuração e conferência.
+     * @return Verdadeiro se o Sudoku está resolvido, falso caso contrário.
+     */
+    public boolean checkWinFullScan() {
+        return engine.isSolvedFullScan();
     }
 
     /**
      * Cria e retorna uma cópia profunda deste tabuleiro.
+     * A cópia compartilha os arrays do motor (copy-on-write) e só os duplica na primeira escrita,
+     * então copiar para busca, desfazer ou simulações custa poucos objetos.
      * @return Uma nova instância de Board com os mesmos valores e estados fixos.
      */
     public Board copyBoard() {
-        Board newBoard = new Board();
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                Space originalSpace = this.spaces[r][c];
-                // Cria um novo Space com o mesmo valor e estado fixo
-                newBoard.spaces[r][c] = new Space(originalSpace.getValue(), originalSpace.isFixed());
-            }
+        BoardEngine copy = new BoardEngine(getBoxSize());
+        copy.copyFrom(engine);
+        Board board = new Board(copy);
+        if (notes != null) {
+            board.getNotes().copyFrom(notes);
         }
-        return newBoard;
+        return board;
+    }
+
+    /**
+     * Cria um snapshot imutável do tabuleiro, sem copiar as células.
+     * @return O snapshot do estado atual.
+     */
+    public BoardSnapshot snapshot() {
+        return engine.snapshot();
+    }
+
+    /**
+     * Restaura o tabuleiro para o estado de um snapshot.
+     * @param snapshot O snapshot a restaurar.
+     */
+    public void restore(BoardSnapshot snapshot) {
+        engine.restore(snapshot);
+    }
+
+    /**
+     * Cria um tabuleiro a partir de um snapshot.
+     * @param snapshot O snapshot de origem.
+     * @return Um novo Board com o estado do snapshot.
+     */
+    public static Board fromSnapshot(BoardSnapshot snapshot) {
+        Board board = new Board(snapshot.getOrder());
+        board.engine.restore(snapshot);
+        return board;
     }
 
     /**
      * Método auxiliar para carregar o tabuleiro a partir de um array de Strings.
      * Usado principalmente para inicialização e testes.
-     * @param rawBoard Uma matriz 9x9 de strings, onde cada string é o valor da célula.
+     * @param rawBoard Uma matriz getSize() x getSize() de strings, onde cada string é o valor da célula.
+     * @throws IllegalArgumentException se algum valor estiver fora do intervalo do tabuleiro.
      */
     public void loadBoard(String[][] rawBoard) {
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
+        engine.clear();
+        if (notes != null) {
+            notes.clearAll();
+        }
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
                 int value = Integer.parseInt(rawBoard[r][c]);
-                boolean isFixed = (value != 0); // Valores iniciais não-zero são fixos
-                this.spaces[r][c] = new Space(value, isFixed);
+                if (value < 0 || value > size) {
+                    throw new IllegalArgumentException("Valor inválido em (" + r + ", " + c + "): " + value);
+                }
+                int cell = r * size + c;
+                engine.set(cell, value);
+                engine.setFixed(cell, value != 0); // Valores iniciais não-zero são fixos
             }
         }
     }
@@ -0,0 +1,121 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Lote de tabuleiros da mesma ordem guardado em estrutura de arrays: os valores de uma mesma
+ * célula de todos os tabuleiros ficam lado a lado (values[célula * capacidade + tabuleiro]).
+ * Assim o BatchValidator lê, para cada célula, um trecho contíguo de bytes de vários tabuleiros
+ * ao montar os planos de bits (um long por célula e dígito, um bit por tabuleiro) que ele valida
+ * com AND/OR sobre 64 tabuleiros de uma vez. A vetorização automática não ajudou aqui: o C2 não
+ * vetoriza os deslocamentos variáveis de um laço com um tabuleiro por posição.
+ * Só guarda os valores (0 para vazia); as células fixas não importam para a validação.
+ */
+public final class BoardBatch {
+    private final BoardGeometry geometry;
+    private final int capacity;
+    private final byte[] values;
+    private int count;
+
+    /**
+     * Construtor de um lote vazio.
+     * @param order A ordem dos tabuleiros (3 para o 9x9).
+     * @param capacity A quantidade máxima de tabuleiros.
+     */
+    public BoardBatch(int order, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A capacidade deve ser positiva: " + capacity);
+        }
+        this.geometry = BoardGeometry.of(order);
+        this.capacity = capacity;
+        this.values = new byte[geometry.cells * capacity];
+    }
+
+    /**
+     * Acrescenta os valores de um tabuleiro ao lote.
+     * @param source O motor de origem, da mesma ordem do lote.
+     * @return A posição do tabuleiro no lote.
+     * @throws IllegalArgumentException se o tabuleiro for de outra ordem.
+     * @throws IllegalStateException se o lote estiver cheio.
+     */
+    public int add(BoardEngine source) {
+        if (source.getGeometry() != geometry) {
+            throw new IllegalArgumentException("Tabuleiro " + source.getSize() + "x" + source.getSize()
+                    + " em um lote " + geometry.size + "x" + geometry.size);
+        }
+        int board = reserve();
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            values[cell * capacity + board] = (byte) source.get(cell);
+        }
+        return board;
+    }
+
+    /**
+     * Acrescenta um tabuleiro 9x9 no formato de linha de 81 caracteres ('0' ou '.' para vazia).
+     * @param src O array de origem.
+     * @param offset A posição do primeiro caractere.
+     * @return A posição do tabuleiro no lote, ou -1 se a linha tiver caractere inválido (nada é acrescentado).
+     * @throws IllegalStateException se o lote estiver cheio ou não for 9x9.
+     */
+    public int addLine(byte[] src, int offset) {
+        if (geometry.order != BoardGeometry.CLASSIC_ORDER) {
+            throw new IllegalStateException("O formato de linha é só do 9x9");
+        }
+        int board = reserve();
+        for (int cell = 0; cell < BoardCodec.LINE_LENGTH; cell++) {
+            int ch = src[offset + cell];
+            int value;
+            if (ch >= '1' && ch <= '9') {
+                value = ch - '0';
+            } else if (ch == '0' || ch == '.') {
+                value = 0;
+            } else {
+                count--; // Desfaz a reserva
+                return -1;
+            }
+            values[cell * capacity + board] = (byte) value;
+        }
+        return board;
+    }
+
+    private int reserve() {
+        if (count == capacity) {
+            throw new IllegalStateException("Lote cheio: " + capacity + " tabuleiros");
+        }
+        return count++;
+    }
+
+    /**
+     * Retorna o valor de uma célula de um tabuleiro do lote.
+     * @param board A posição do tabuleiro.
+     * @param cell O índice da célula.
+     * @return O valor, ou 0 se a célula estiver vazia.
+     */
+    public int get(int board, int cell) {
+        return values[cell * capacity + board];
+    }
+
+    /**
+     * Esvazia o lote para reaproveitá-lo. Os valores antigos são sobrescritos pelos próximos add().
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Array interno de valores, na ordem célula * capacidade + tabuleiro. Usado pelo BatchValidator.
+     */
+    byte[] values() {
+        return values;
+    }
+}
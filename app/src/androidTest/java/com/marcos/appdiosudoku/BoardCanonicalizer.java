@@ -0,0 +1,278 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Forma canônica de puzzles 9x9 para eliminar duplicatas isomorfas.
+ * Dois puzzles são equivalentes quando um vira o outro por troca de rótulos dos dígitos,
+ * permutação de linhas dentro de uma faixa, de colunas dentro de uma pilha, troca de faixas,
+ * troca de pilhas e transposição. A forma canônica é a menor sequência das 81 células (linha a
+ * linha, 0 para vazia) entre todas essas transformações, com os dígitos renomeados na ordem em
+ * que aparecem; equivalentes têm exatamente a mesma forma e o mesmo hash.
+ * A busca percorre as 2 x 1296 combinações de transposição e ordem das colunas e escolhe as
+ * linhas em profundidade, cortando qualquer ramo cujo prefixo já seja maior que o melhor visto.
+ * As pistas são as células fixas, como no SudokuSolver. Uma instância reaproveita os arrays de
+ * trabalho, não aloca por puzzle e não é thread-safe: use uma por thread.
+ */
+public final class BoardCanonicalizer {
+    private static final int SIZE = BoardEngine.SIZE;
+    private static final int BOX = BoardEngine.BOX;
+    private static final int CELLS = BoardEngine.CELLS;
+    private static final int MAX = Integer.MAX_VALUE; // Linha ainda não preenchida na melhor forma
+
+    // Todas as ordens de colunas que preservam as pilhas: 3! (pilhas) x 3!^3 (colunas em cada pilha)
+    private static final int[][] COLUMN_ORDERS = buildColumnOrders();
+
+    private final int[] source = new int[CELLS]; // Pistas do puzzle, transpostas ou não
+    private int[] columns; // Ordem de colunas em teste
+    private final int[] best = new int[CELLS]; // Melhor forma encontrada até agora
+    private final int[] label = new int[SIZE + 1]; // Rótulo de cada dígito no caminho atual (0 = sem rótulo)
+    private final int[] assigned = new int[SIZE]; // Dígitos rotulados no caminho atual, em ordem
+    private final int[] path = new int[SIZE]; // Linha de origem escolhida em cada nível
+    private int nextLabel;
+    private boolean dirty; // A melhor forma mudou e a transformação ainda não foi registrada
+
+    // Transformação que produziu a melhor forma
+    private boolean bestTranspose;
+    private int bestColumnOrder;
+    private final int[] bestRows = new int[SIZE];
+    private final int[] bestDigit = new int[SIZE + 1]; // Dígito de origem de cada rótulo canônico
+    private final int[] bestLabel = new int[SIZE + 1]; // Rótulo canônico de cada dígito de origem
+    private boolean transposeInSearch; // Transposição em teste
+
+    /**
+     * Calcula a forma canônica das pistas do tabuleiro, sem alocar.
+     * Depois da chamada, toCanonical() e fromCanonical() convertem grades inteiras (por exemplo,
+     * a solução) entre o tabuleiro de origem e a forma canônica.
+     * @param puzzle O tabuleiro 9x9 de origem.
+     * @param target Array de 81 posições que recebe a forma canônica (0 para vazia, 1 a 9).
+     * @return O hash de 64 bits da forma canônica.
+     * @throws IllegalArgumentException se o tabuleiro não for 9x9.
+     */
+    public long canonicalize(BoardEngine puzzle, byte[] target) {
+        if (puzzle.getSize() != SIZE) {
+            throw new IllegalArgumentException("Forma canônica disponível só para tabuleiros 9x9, recebido "
+                    + puzzle.getSize() + "x" + puzzle.getSize());
+        }
+        for (int i = 0; i < CELLS; i++) {
+            best[i] = MAX;
+        }
+        for (int t = 0; t < 2; t++) {
+            transposeInSearch = t == 1;
+            for (int cell = 0; cell < CELLS; cell++) {
+                int from = transposeInSearch ? (cell % SIZE) * SIZE + cell / SIZE : cell;
+                source[cell] = puzzle.isFixed(from) ? puzzle.get(from) : 0;
+            }
+            for (int order = 0; order < COLUMN_ORDERS.length; order++) {
+                columns = COLUMN_ORDERS[order];
+                nextLabel = 0;
+                searchRows(0, 0, -1, order);
+            }
+        }
+        for (int i = 0; i < CELLS; i++) {
+            target[i] = (byte) best[i];
+        }
+        return hash(target);
+    }
+
+    /**
+     * Retorna um novo tabuleiro com a forma canônica das pistas (todas fixas).
+     * @param puzzle O tabuleiro de origem.
+     * @return O tabuleiro canônico.
+     */
+    public Board canonicalize(Board puzzle) {
+        byte[] form = new byte[CELLS];
+        canonicalize(puzzle.getEngine(), form);
+        Board canonical = new Board();
+        BoardEngine engine = canonical.getEngine();
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (form[cell] != 0) {
+                engine.set(cell, form[cell]);
+                engine.setFixed(cell, true);
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Calcula só o hash da forma canônica das pistas do tabuleiro.
+     * @param puzzle O tabuleiro.
+     * @return O hash de 64 bits; puzzles equivalentes têm o mesmo hash.
+     */
+    public long hash(Board puzzle) {
+        return canonicalize(puzzle.getEngine(), new byte[CELLS]);
+    }
+
+    /**
+     * Escolhe em profundidade a linha de origem de cada nível, respeitando as faixas:
+     * no início de cada faixa escolhe uma faixa ainda não usada, e dentro dela as linhas restantes.
+     * @param level O nível (linha canônica) sendo preenchido.
+     * @param usedRows Máscara das linhas de origem já usadas.
+     * @param band A faixa de origem atual, ou -1 no início de uma faixa.
+     * @param order O índice da ordem de colunas em teste.
+     */
+    private void searchRows(int level, int usedRows, int band, int order) {
+        if (level == SIZE) {
+            if (dirty) {
+                recordTransform(order);
+                dirty = false;
+            }
+            return;
+        }
+        int firstBand = band;
+        int lastBand = band;
+        if (level % BOX == 0) {
+            firstBand = 0;
+            lastBand = BOX - 1;
+        }
+        for (int b = firstBand; b <= lastBand; b++) {
+            if (level % BOX == 0 && (usedRows & (1 << (b * BOX))) != 0) {
+                continue; // Faixa já usada
+            }
+            for (int r = b * BOX; r < b * BOX + BOX; r++) {
+                if ((usedRows & (1 << r)) != 0) {
+                    continue;
+                }
+                int labelsBefore = nextLabel;
+                if (placeRow(level, r)) {
+                    path[level] = r;
+                    searchRows(level + 1, usedRows | (1 << r), b, order);
+                }
+                // Desfaz os rótulos criados por esta linha
+                while (nextLabel > labelsBefore) {
+                    label[assigned[--nextLabel]] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compara a linha de origem, renomeada, com a linha do nível na melhor forma.
+     * Se for menor, passa a ser a melhor e os níveis seguintes voltam a ficar em aberto.
+     * @return Falso se a linha é maior e o ramo deve ser cortado.
+     */
+    private boolean placeRow(int level, int row) {
+        int base = level * SIZE;
+        int rowStart = row * SIZE;
+        boolean less = false;
+        for (int c = 0; c < SIZE; c++) {
+            int value = source[rowStart + columns[c]];
+            int renamed = 0;
+            if (value != 0) {
+                renamed = label[value];
+                if (renamed == 0) {
+                    renamed = ++nextLabel;
+                    label[value] = renamed;
+                    assigned[renamed - 1] = value;
+                }
+            }
+            if (!less) {
+                int current = best[base + c];
+                if (renamed > current) {
+                    return false;
+                }
+                less = renamed < current;
+            }
+            if (less) {
+                best[base + c] = renamed;
+            }
+        }
+        if (less) {
+            for (int i = base + SIZE; i < CELLS && best[i] != MAX; i++) {
+                best[i] = MAX;
+            }
+            dirty = true;
+        }
+        return true;
+    }
+
+    private void recordTransform(int order) {
+        bestTranspose = transposeInSearch;
+        bestColumnOrder = order;
+        System.arraycopy(path, 0, bestRows, 0, SIZE);
+        // Dígitos ausentes das pistas recebem os rótulos restantes em ordem crescente
+        int next = nextLabel;
+        for (int digit = 1; digit <= SIZE; digit++) {
+            int renamed = label[digit] != 0 ? label[digit] : ++next;
+            bestLabel[digit] = renamed;
+            bestDigit[renamed] = digit;
+        }
+    }
+
+    /**
+     * Índice, no tabuleiro de origem, da célula que vai para a posição canônica (row, col).
+     */
+    private int sourceCell(int row, int col) {
+        int r = bestRows[row];
+        int c = COLUMN_ORDERS[bestColumnOrder][col];
+        return bestTranspose ? c * SIZE + r : r * SIZE + c;
+    }
+
+    /**
+     * Aplica a transformação do último canonicalize() a uma grade do tabuleiro de origem.
+     * @param sourceGrid Os 81 valores na orientação e nos dígitos de origem.
+     * @param canonicalGrid Array de 81 posições que recebe a grade na forma canônica.
+     */
+    public void toCanonical(byte[] sourceGrid, byte[] canonicalGrid) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int value = sourceGrid[sourceCell(row, col)];
+                canonicalGrid[row * SIZE + col] = (byte) (value == 0 ? 0 : bestLabel[value]);
+            }
+        }
+    }
+
+    /**
+     * Desfaz a transformação do último canonicalize(): leva uma grade canônica, por exemplo
+     * uma solução guardada em cache, de volta à orientação e aos dígitos do tabuleiro de origem.
+     * @param canonicalGrid Os 81 valores na forma canônica.
+     * @param sourceGrid Array de 81 posições que recebe a grade na forma de origem.
+     */
+    public void fromCanonical(byte[] canonicalGrid, byte[] sourceGrid) {
+        for (int row = 0; row < SIZE; row++) {
+            for (int col = 0; col < SIZE; col++) {
+                int value = canonicalGrid[row * SIZE + col];
+                sourceGrid[sourceCell(row, col)] = (byte) (value == 0 ? 0 : bestDigit[value]);
+            }
+        }
+    }
+
+    /**
+     * Hash de 64 bits de 81 valores, como uma forma canônica ou as pistas de um puzzle
+     * (FNV-1a seguido da mistura final do MurmurHash3).
+     * @param form Os 81 valores.
+     * @return O hash.
+     */
+    public static long hash(byte[] form) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < CELLS; i++) {
+            h = (h ^ form[i]) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int[][] buildColumnOrders() {
+        int[][] perms = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+        int[][] orders = new int[6 * 6 * 6 * 6][SIZE];
+        int n = 0;
+        for (int[] stacks : perms) {
+            for (int[] a : perms) {
+                for (int[] b : perms) {
+                    for (int[] c : perms) {
+                        int[][] within = {a, b, c};
+                        for (int s = 0; s < BOX; s++) {
+                            for (int i = 0; i < BOX; i++) {
+                                orders[n][s * BOX + i] = stacks[s] * BOX + within[s][i];
+                            }
+                        }
+                        n++;
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,250 @@
+package com.marcos.appdiosudoku;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codificador de tabuleiros em formatos compactos, sem Strings intermediárias.
+ * <ul>
+ *     <li>Linha de 81 caracteres: '1'-'9' são pistas (fixas), '0' ou '.' são células vazias.</li>
+ *     <li>Binário empacotado: 41 bytes com um valor de 4 bits por célula, seguidos de
+ *     11 bytes com o mapa de bits das células fixas (52 bytes no total).</li>
+ * </ul>
+ * Os formatos são do Sudoku tradicional 9x9.
+ * Os métodos sobre BoardEngine retornam falso em vez de lançar exceção, para uso em laços de importação.
+ */
+public final class BoardCodec {
+    public static final int LINE_LENGTH = BoardEngine.CELLS; // 81 caracteres por linha
+    private static final int VALUES_BYTES = (BoardEngine.CELLS + 1) / 2; // 41 bytes de valores
+    private static final int FIXED_BYTES = (BoardEngine.CELLS + 7) / 8; // 11 bytes de células fixas
+    public static final int PACKED_SIZE = VALUES_BYTES + FIXED_BYTES; // 52 bytes por tabuleiro
+
+    private BoardCodec() {
+    }
+
+    /**
+     * Lê um tabuleiro no formato de linha de 81 caracteres.
+     * @param src O array de origem.
+     * @param offset A posição do primeiro caractere.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se a linha é válida; falso se houver caractere inesperado.
+     */
+    public static boolean parseLine(byte[] src, int offset, BoardEngine target) {
+        requireClassic(target);
+        target.clear();
+        for (int cell = 0; cell < LINE_LENGTH; cell++) {
+            int ch = src[offset + cell];
+            if (ch >= '1' && ch <= '9') {
+                target.set(cell, ch - '0');
+                target.setFixed(cell, true);
+            } else if (ch != '0' && ch != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lê um tabuleiro no formato de linha a partir da posição atual do buffer, avançando 81 bytes.
+     * @param src O buffer de origem.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se a linha é válida.
+     */
+    public static boolean parseLine(ByteBuffer src, BoardEngine target) {
+        int base = src.position();
+        src.position(base + LINE_LENGTH);
+        return parseLine(src, base, target);
+    }
+
+    /**
+     * Lê um tabuleiro no formato de linha a partir de uma posição absoluta, sem alterar o buffer.
+     * Pode ser usado por várias threads sobre o mesmo buffer.
+     * @param src O buffer de origem.
+     * @param index A posição do primeiro caractere.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se a linha é válida.
+     */
+    public static boolean parseLine(ByteBuffer src, int index, BoardEngine target) {
+        requireClassic(target);
+        target.clear();
+        for (int cell = 0; cell < LINE_LENGTH; cell++) {
+            int ch = src.get(index + cell);
+            if (ch >= '1' && ch <= '9') {
+                target.set(cell, ch - '0');
+                target.setFixed(cell, true);
+            } else if (ch != '0' && ch != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cria um Board a partir de uma linha de 81 caracteres.
+     * @param src O array de origem.
+     * @param offset A posição do primeiro caractere.
+     * @return O tabuleiro lido.
+     * @throws IllegalArgumentException se a linha estiver mal formatada.
+     */
+    public static Board readLine(byte[] src, int offset) {
+        if (src.length - offset < LINE_LENGTH) {
+            throw new IllegalArgumentException("Linha com menos de " + LINE_LENGTH + " caracteres");
+        }
+        Board board = new Board();
+        if (!parseLine(src, offset, board.getEngine())) {
+            throw new IllegalArgumentException("Caractere inválido na linha do tabuleiro");
+        }
+        return board;
+    }
+
+    /**
+     * Grava o tabuleiro como linha de 81 caracteres ('0' para células vazias), sem quebra de linha.
+     * @param source O motor de origem.
+     * @param dst O array de destino.
+     * @param offset A posição do primeiro caractere.
+     */
+    public static void writeLine(BoardEngine source, byte[] dst, int offset) {
+        requireClassic(source);
+        for (int cell = 0; cell < LINE_LENGTH; cell++) {
+            dst[offset + cell] = (byte) ('0' + source.get(cell));
+        }
+    }
+
+    /**
+     * Grava o tabuleiro como linha de 81 caracteres na posição atual do buffer, avançando 81 bytes.
+     * @param source O motor de origem.
+     * @param dst O buffer de destino.
+     */
+    public static void writeLine(BoardEngine source, ByteBuffer dst) {
+        requireClassic(source);
+        int base = dst.position();
+        for (int cell = 0; cell < LINE_LENGTH; cell++) {
+            dst.put(base + cell, (byte) ('0' + source.get(cell)));
+        }
+        dst.position(base + LINE_LENGTH);
+    }
+
+    /**
+     * Empacota o tabuleiro no formato binário de 52 bytes.
+     * @param source O motor de origem.
+     * @param dst O array de destino.
+     * @param offset A posição do primeiro byte.
+     */
+    public static void pack(BoardEngine source, byte[] dst, int offset) {
+        requireClassic(source);
+        for (int i = 0; i < VALUES_BYTES; i++) {
+            int cell = i * 2;
+            int high = source.get(cell);
+            int low = cell + 1 < BoardEngine.CELLS ? source.get(cell + 1) : 0;
+            dst[offset + i] = (byte) (high << 4 | low);
+        }
+        for (int i = 0; i < FIXED_BYTES; i++) {
+            dst[offset + VALUES_BYTES + i] = (byte) fixedByte(source, i);
+        }
+    }
+
+    /**
+     * Empacota o tabuleiro no formato binário na posição atual do buffer, avançando 52 bytes.
+     * @param source O motor de origem.
+     * @param dst O buffer de destino.
+     */
+    public static void pack(BoardEngine source, ByteBuffer dst) {
+        requireClassic(source);
+        int base = dst.position();
+        for (int i = 0; i < VALUES_BYTES; i++) {
+            int cell = i * 2;
+            int high = source.get(cell);
+            int low = cell + 1 < BoardEngine.CELLS ? source.get(cell + 1) : 0;
+            dst.put(base + i, (byte) (high << 4 | low));
+        }
+        for (int i = 0; i < FIXED_BYTES; i++) {
+            dst.put(base + VALUES_BYTES + i, (byte) fixedByte(source, i));
+        }
+        dst.position(base + PACKED_SIZE);
+    }
+
+    /**
+     * Desempacota um tabuleiro do formato binário de 52 bytes.
+     * @param src O array de origem.
+     * @param offset A posição do primeiro byte.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se os dados são válidos (valores até 9 e células fixas preenchidas).
+     */
+    public static boolean unpack(byte[] src, int offset, BoardEngine target) {
+        requireClassic(target);
+        target.clear();
+        for (int cell = 0; cell < BoardEngine.CELLS; cell++) {
+            int packed = src[offset + (cell >> 1)];
+            int value = (cell & 1) == 0 ? (packed >> 4) & 0xF : packed & 0xF;
+            boolean fixed = (src[offset + VALUES_BYTES + (cell >> 3)] & (1 << (cell & 7))) != 0;
+            if (!store(target, cell, value, fixed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Desempacota um tabuleiro da posição atual do buffer, avançando 52 bytes.
+     * @param src O buffer de origem.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se os dados são válidos.
+     */
+    public static boolean unpack(ByteBuffer src, BoardEngine target) {
+        int base = src.position();
+        src.position(base + PACKED_SIZE);
+        return unpack(src, base, target);
+    }
+
+    /**
+     * Desempacota um tabuleiro a partir de uma posição absoluta, sem alterar o buffer.
+     * Pode ser usado por várias threads sobre o mesmo buffer.
+     * @param src O buffer de origem.
+     * @param index A posição do primeiro byte.
+     * @param target O motor que recebe o tabuleiro (é limpo antes).
+     * @return Verdadeiro se os dados são válidos.
+     */
+    public static boolean unpack(ByteBuffer src, int index, BoardEngine target) {
+        requireClassic(target);
+        target.clear();
+        for (int cell = 0; cell < BoardEngine.CELLS; cell++) {
+            int packed = src.get(index + (cell >> 1));
+            int value = (cell & 1) == 0 ? (packed >> 4) & 0xF : packed & 0xF;
+            boolean fixed = (src.get(index + VALUES_BYTES + (cell >> 3)) & (1 << (cell & 7))) != 0;
+            if (!store(target, cell, value, fixed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean store(BoardEngine target, int cell, int value, boolean fixed) {
+        if (value > BoardEngine.SIZE || (fixed && value == 0)) {
+            return false;
+        }
+        if (value != 0) {
+            target.set(cell, value);
+        }
+        if (fixed) {
+            target.setFixed(cell, true);
+        }
+        return true;
+    }
+
+    private static void requireClassic(BoardEngine engine) {
+        if (engine.getSize() != BoardEngine.SIZE) {
+            throw new IllegalArgumentException("Formato suportado apenas para tabuleiros 9x9, recebido "
+                    + engine.getSize() + "x" + engine.getSize());
+        }
+    }
+
+    private static int fixedByte(BoardEngine source, int index) {
+        int bits = 0;
+        int first = index * 8;
+        for (int b = 0; b < 8 && first + b < BoardEngine.CELLS; b++) {
+            if (source.isFixed(first + b)) {
+                bits |= 1 << b;
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,421 @@
+package com.marcos.appdiosudoku;
+
+import java.util.Arrays;
+
+/**
+ * Motor de restrições do Sudoku baseado em máscaras de bits.
+ * Mantém os valores das células em um array plano e, para cada linha, coluna e bloco,
+ * uma máscara com os dígitos presentes. Verificar um movimento vira algumas operações
+ * de bits, sem percorrer objetos Space. As máscaras são long, o que cobre tabuleiros
+ * de 4x4 a 36x36 (ver BoardGeometry) com o mesmo caminho rápido do 9x9.
+ */
+public final class BoardEngine {
+    // Dimensões do Sudoku tradicional, usadas pelos formatos de arquivo de 81 células
+    public static final int SIZE = 9; // Tamanho do tabuleiro (9x9)
+    public static final int BOX = 3; // Tamanho do bloco (3x3)
+    public static final int CELLS = SIZE * SIZE; // Quantidade de células
+
+    private final BoardGeometry geometry;
+    private final int size; // Cópias locais da geometria, usadas nos caminhos rápidos
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] peers;
+
+    // Os arrays de estado podem ser compartilhados com snapshots e cópias (copy-on-write):
+    // quando shared é verdadeiro, são duplicados antes da primeira escrita.
+    private byte[] values; // Valor de cada célula (0 = vazia)
+    private boolean[] fixed; // Indica se a célula é fixa
+    private long[] masks; // Dígitos presentes em cada linha, coluna e bloco, nessa ordem
+    private boolean shared;
+    private int filledCount; // Quantidade de células preenchidas
+    private int conflictCount; // Quantidade de pares de vizinhas com o mesmo dígito
+    private ConflictTracker conflicts; // Conjunto de conflitos, criado por enableConflictTracking()
+
+    /**
+     * Construtor de um motor 9x9 vazio.
+     */
+    public BoardEngine() {
+        this(BoardGeometry.CLASSIC_ORDER);
+    }
+
+    /**
+     * Construtor de um motor vazio de ordem n (tabuleiro n² x n²).
+     * @param order A ordem do tabuleiro (2 a 6).
+     */
+    public BoardEngine(int order) {
+        this.geometry = BoardGeometry.of(order);
+        this.size = geometry.size;
+        this.rowOf = geometry.rowOf;
+        this.colOf = geometry.colOf;
+        this.boxOf = geometry.boxOf;
+        this.peers = geometry.peers;
+        this.values = new byte[geometry.cells];
+        this.fixed = new boolean[geometry.cells];
+        this.masks = new long[3 * size];
+    }
+
+    /**
+     * Retorna a geometria do tabuleiro.
+     * @return A geometria (ordem, tamanho e tabelas de vizinhança).
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Retorna o tamanho do tabuleiro (9 para o Sudoku tradicional).
+     * @return A quantidade de linhas (e de colunas).
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Retorna a quantidade de células do tabuleiro.
+     * @return O número de células.
+     */
+    public int getCells() {
+        return values.length;
+    }
+
+    /**
+     * Retorna o valor da célula.
+     * @param cell O índice da célula.
+     * @return O valor (1 até o tamanho), ou 0 se a célula estiver vazia.
+     */
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * Verifica se a célula é fixa.
+     * @param cell O índice da célula.
+     * @return Verdadeiro se a célula é fixa.
+     */
+    public boolean isFixed(int cell) {
+        return fixed[cell];
+    }
+
+    /**
+     * Define se a célula é fixa.
+     * @param cell O índice da célula.
+     * @param isFixed Verdadeiro para tornar a célula fixa.
+     */
+    public void setFixed(int cell, boolean isFixed) {
+        if (fixed[cell] != isFixed) {
+            ensureOwned();
+            fixed[cell] = isFixed;
+        }
+    }
+
+    /**
+     * Retorna a máscara dos dígitos já usados pelas vizinhas da célula (linha, coluna e bloco).
+     * Se a própria célula estiver preenchida, o seu dígito também aparece na máscara.
+     * @param cell O índice da célula.
+     * @return A máscara de dígitos usados (bit d ligado para o dígito d).
+     */
+    public long usedMask(int cell) {
+        return masks[rowOf[cell]] | masks[size + colOf[cell]] | masks[2 * size + boxOf[cell]];
+    }
+
+    /**
+     * Verifica se o dígito pode ficar na célula sem repetir em linha, coluna ou bloco.
+     * @param cell O índice da célula.
+     * @param digit O dígito (1 até o tamanho).
+     * @return Verdadeiro se nenhuma vizinha contém o dígito.
+     */
+    public boolean canPlace(int cell, int digit) {
+        long bit = 1L << digit;
+        if ((usedMask(cell) & bit) == 0) {
+            return true;
+        }
+        // O bit pode vir da própria célula; só nesse caso é preciso olhar as vizinhas
+        return values[cell] == digit && !hasPeerWith(cell, digit);
+    }
+
+    /**
+     * Tenta colocar um valor na célula respeitando as regras do Sudoku.
+     * @param cell O índice da célula.
+     * @param digit O valor (1 até o tamanho), ou 0 para limpar.
+     * @return Verdadeiro se o valor foi colocado, falso se a célula é fixa ou o valor conflita.
+     */
+    public boolean place(int cell, int digit) {
+        if (fixed[cell]) {
+            return false;
+        }
+        if (digit != 0 && !canPlace(cell, digit)) {
+            return false;
+        }
+        set(cell, digit);
+        return true;
+    }
+
+    /**
+     * Escreve um valor na célula sem validar as regras, mantendo as máscaras atualizadas.
+     * Usado no carregamento de tabuleiros e pelos objetos Space.
+     * Os contadores de células preenchidas e de conflitos são atualizados aqui, percorrendo
+     * no pior caso as vizinhas da célula (20 no 9x9).
+     * @param cell O índice da célula.
+     * @param digit O valor (0 até o tamanho).
+     */
+    public void set(int cell, int digit) {
+        int old = values[cell];
+        if (old == digit) {
+            return;
+        }
+        ensureOwned();
+        values[cell] = (byte) digit;
+        if (old != 0) {
+            unmark(cell, old);
+            filledCount--;
+        }
+        if (digit != 0) {
+            long bit = 1L << digit;
+            if ((usedMask(cell) & bit) != 0) {
+                // O dígito já existe em alguma unidade: cada vizinha com ele forma um novo conflito
+                conflictCount += countPeersWith(cell, digit);
+            }
+            masks[rowOf[cell]] |= bit;
+            masks[size + colOf[cell]] |= bit;
+            masks[2 * size + boxOf[cell]] |= bit;
+            filledCount++;
+        }
+        if (conflicts != null) {
+            conflicts.cellChanged(cell, old, digit);
+        }
+    }
+
+    /**
+     * Remove o dígito das máscaras das unidades da célula, a menos que outra célula
+     * da mesma unidade ainda o contenha (possível em tabuleiros carregados sem validação).
+     * Também desconta os conflitos que a célula formava com as vizinhas.
+     */
+    private void unmark(int cell, int digit) {
+        long bit = 1L << digit;
+        boolean inRow = false;
+        boolean inCol = false;
+        boolean inBox = false;
+        if ((usedMask(cell) & bit) != 0) {
+            int[] cellPeers = peers[cell];
+            for (int i = 0; i < cellPeers.length; i++) {
+                int peer = cellPeers[i];
+                if (values[peer] == digit) {
+                    inRow |= rowOf[peer] == rowOf[cell];
+                    inCol |= colOf[peer] == colOf[cell];
+                    inBox |= boxOf[peer] == boxOf[cell];
+                    conflictCount--;
+                }
+            }
+        }
+        if (!inRow) {
+            masks[rowOf[cell]] &= ~bit;
+        }
+        if (!inCol) {
+            masks[size + colOf[cell]] &= ~bit;
+        }
+        if (!inBox) {
+            masks[2 * size + boxOf[cell]] &= ~bit;
+        }
+    }
+
+    /**
+     * Conta quantas vizinhas da célula contêm o dígito.
+     */
+    private int countPeersWith(int cell, int digit) {
+        int count = 0;
+        int[] cellPeers = peers[cell];
+        for (int i = 0; i < cellPeers.length; i++) {
+            if (values[cellPeers[i]] == digit) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Verifica se alguma vizinha da célula contém o dígito.
+     * @param cell O índice da célula.
+     * @param digit O dígito procurado.
+     * @return Verdadeiro se o dígito aparece em alguma vizinha.
+     */
+    public boolean hasPeerWith(int cell, int digit) {
+        int[] cellPeers = peers[cell];
+        for (int i = 0; i < cellPeers.length; i++) {
+            if (values[cellPeers[i]] == digit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passa a manter o conjunto de conflitos a cada escrita e o retorna.
+     * Sem isso, o motor só conta os pares em conflito (getConflictCount()).
+     * @return O conjunto de conflitos deste motor.
+     */
+    public ConflictTracker enableConflictTracking() {
+        if (conflicts == null) {
+            conflicts = new ConflictTracker(this);
+        }
+        return conflicts;
+    }
+
+    /**
+     * Retorna o conjunto de conflitos, se ativado.
+     * @return O conjunto de conflitos, ou null se enableConflictTracking() não foi chamado.
+     */
+    public ConflictTracker getConflictTracker() {
+        return conflicts;
+    }
+
+    /**
+     * Retorna a quantidade de células preenchidas.
+     * @return O número de células com valor diferente de 0.
+     */
+    public int getFilledCount() {
+        return filledCount;
+    }
+
+    /**
+     * Retorna a quantidade de conflitos ativos, contados como pares de vizinhas com o mesmo dígito.
+     * @return O número de pares em conflito.
+     */
+    public int getConflictCount() {
+        return conflictCount;
+    }
+
+    /**
+     * Verifica se o tabuleiro está resolvido usando os contadores incrementais, em O(1).
+     * @return Verdadeiro se todas as células estão preenchidas e não há conflitos.
+     */
+    public boolean isSolved() {
+        return filledCount == values.length && conflictCount == 0;
+    }
+
+    /**
+     * Verifica se o tabuleiro está resolvido percorrendo todas as células e suas vizinhas.
+     * Não depende dos contadores; serve como referência para conferir o caminho incremental.
+     * @return Verdadeiro se todas as células estão preenchidas e nenhuma repete o valor de uma vizinha.
+     */
+    public boolean isSolvedFullScan() {
+        for (int cell = 0; cell < values.length; cell++) {
+            int value = values[cell];
+            if (value == 0 || hasPeerWith(cell, value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copia o estado de outro motor em O(1): os arrays passam a ser compartilhados
+     * e cada lado só os duplica na primeira escrita.
+     * @param other O motor de origem.
+     */
+    public void copyFrom(BoardEngine other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Tabuleiros de tamanhos diferentes: " + other.size + " e " + size);
+        }
+        values = other.values;
+        fixed = other.fixed;
+        masks = other.masks;
+        filledCount = other.filledCount;
+        conflictCount = other.conflictCount;
+        shared = true;
+        other.shared = true;
+        if (conflicts != null) {
+            conflicts.rebuild();
+        }
+    }
+
+    /**
+     * Copia o estado de outro motor para os arrays deste, sem compartilhá-los: ao contrário de
+     * copyFrom(), a origem continua dona dos seus arrays e não os duplica na próxima escrita.
+     * Custa O(células) e não aloca se este motor já for dono dos seus; serve para motores de
+     * trabalho reaproveitados a cada puzzle.
+     * @param other O motor de origem.
+     */
+    public void copyValuesFrom(BoardEngine other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Tabuleiros de tamanhos diferentes: " + other.size + " e " + size);
+        }
+        if (shared) {
+            values = new byte[values.length];
+            fixed = new boolean[fixed.length];
+            masks = new long[masks.length];
+            shared = false;
+        }
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        System.arraycopy(other.fixed, 0, fixed, 0, fixed.length);
+        System.arraycopy(other.masks, 0, masks, 0, masks.length);
+        filledCount = other.filledCount;
+        conflictCount = other.conflictCount;
+        if (conflicts != null) {
+            conflicts.rebuild();
+        }
+    }
+
+    /**
+     * Cria um snapshot imutável do estado atual, em O(1).
+     * Os arrays são compartilhados e este motor os duplica antes da próxima escrita.
+     * @return O snapshot do tabuleiro.
+     */
+    public BoardSnapshot snapshot() {
+        shared = true;
+        return new BoardSnapshot(geometry.order, values, fixed, masks, filledCount, conflictCount);
+    }
+
+    /**
+     * Restaura o estado de um snapshot, em O(1).
+     * @param snapshot O snapshot a restaurar.
+     */
+    public void restore(BoardSnapshot snapshot) {
+        if (snapshot.order != geometry.order) {
+            throw new IllegalArgumentException("Snapshot de outro tamanho de tabuleiro");
+        }
+        values = snapshot.values;
+        fixed = snapshot.fixed;
+        masks = snapshot.masks;
+        filledCount = snapshot.filledCount;
+        conflictCount = snapshot.conflictCount;
+        shared = true;
+        if (conflicts != null) {
+            conflicts.rebuild();
+        }
+    }
+
+    /**
+     * Limpa todas as células e estados fixos.
+     */
+    public void clear() {
+        if (shared) {
+            // Não precisa copiar o conteúdo antigo: basta começar com arrays novos
+            values = new byte[values.length];
+            fixed = new boolean[fixed.length];
+            masks = new long[masks.length];
+            shared = false;
+        } else {
+            Arrays.fill(values, (byte) 0);
+            Arrays.fill(fixed, false);
+            Arrays.fill(masks, 0);
+        }
+        filledCount = 0;
+        conflictCount = 0;
+        if (conflicts != null) {
+            conflicts.rebuild();
+        }
+    }
+
+    /**
+     * Duplica os arrays compartilhados antes de uma escrita.
+     */
+    private void ensureOwned() {
+        if (shared) {
+            values = values.clone();
+            fixed = fixed.clone();
+            masks = masks.clone();
+            shared = false;
+        }
+    }
+}
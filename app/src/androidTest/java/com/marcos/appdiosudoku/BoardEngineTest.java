@@ -0,0 +1,144 @@
+package com.marcos.appdiosudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes do motor de restrições: colocação com validação, máscaras das unidades e os contadores
+ * incrementais de células preenchidas e de conflitos.
+ */
+public class BoardEngineTest {
+    private static final String SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+
+    private static int cell(int row, int col) {
+        return row * BoardEngine.SIZE + col;
+    }
+
+    private static BoardEngine solved() {
+        BoardEngine engine = new BoardEngine();
+        for (int cell = 0; cell < BoardEngine.CELLS; cell++) {
+            engine.set(cell, SOLUTION.charAt(cell) - '0');
+        }
+        return engine;
+    }
+
+    @Test
+    public void place_acceptsDigitWithoutConflict() {
+        BoardEngine engine = new BoardEngine();
+        assertTrue(engine.place(cell(4, 4), 5));
+        assertEquals(5, engine.get(cell(4, 4)));
+        assertEquals(1, engine.getFilledCount());
+        assertEquals(0, engine.getConflictCount());
+    }
+
+    @Test
+    public void place_rejectsDigitRepeatedInRowColumnOrBox() {
+        BoardEngine engine = new BoardEngine();
+        assertTrue(engine.place(cell(0, 0), 5));
+        assertFalse(engine.place(cell(0, 8), 5)); // Mesma linha
+        assertFalse(engine.place(cell(8, 0), 5)); // Mesma coluna
+        assertFalse(engine.place(cell(1, 1), 5)); // Mesmo bloco
+        assertEquals(0, engine.get(cell(0, 8)));
+        assertEquals(0, engine.get(cell(8, 0)));
+        assertEquals(0, engine.get(cell(1, 1)));
+        assertTrue(engine.place(cell(4, 4), 5)); // Nenhuma unidade em comum
+        assertEquals(2, engine.getFilledCount());
+    }
+
+    @Test
+    public void place_rejectsFixedCell() {
+        BoardEngine engine = new BoardEngine();
+        engine.set(cell(0, 0), 5);
+        engine.setFixed(cell(0, 0), true);
+        assertFalse(engine.place(cell(0, 0), 0));
+        assertFalse(engine.place(cell(0, 0), 6));
+        assertEquals(5, engine.get(cell(0, 0)));
+    }
+
+    @Test
+    public void place_zeroClearsCellAndFreesDigit() {
+        BoardEngine engine = new BoardEngine();
+        assertTrue(engine.place(cell(0, 0), 5));
+        assertFalse(engine.canPlace(cell(0, 1), 5));
+        assertTrue(engine.place(cell(0, 0), 0));
+        assertEquals(0, engine.get(cell(0, 0)));
+        assertEquals(0, engine.getFilledCount());
+        assertTrue(engine.canPlace(cell(0, 1), 5));
+    }
+
+    @Test
+    public void canPlace_acceptsCellsOwnDigit() {
+        BoardEngine engine = new BoardEngine();
+        engine.place(cell(2, 3), 7);
+        assertTrue(engine.canPlace(cell(2, 3), 7)); // Regravar o mesmo valor não conflita consigo mesmo
+        assertFalse(engine.canPlace(cell(2, 8), 7));
+        assertTrue(engine.canPlace(cell(2, 8), 8));
+    }
+
+    @Test
+    public void set_countsEachConflictingPair() {
+        BoardEngine engine = new BoardEngine();
+        engine.set(cell(0, 0), 5);
+        engine.set(cell(0, 1), 5); // Linha e bloco com (0, 0): um par
+        assertEquals(1, engine.getConflictCount());
+        engine.set(cell(1, 0), 5); // Coluna e bloco com (0, 0), bloco com (0, 1): mais dois pares
+        assertEquals(3, engine.getConflictCount());
+        assertFalse(engine.canPlace(cell(1, 0), 5));
+
+        engine.set(cell(0, 1), 0);
+        assertEquals(1, engine.getConflictCount());
+        engine.set(cell(1, 0), 3);
+        assertEquals(0, engine.getConflictCount());
+        assertTrue(engine.canPlace(cell(0, 0), 5)); // As máscaras voltam a ter só a célula (0, 0)
+        assertEquals(2, engine.getFilledCount());
+    }
+
+    @Test
+    public void isSolved_followsCountersOnFullGrid() {
+        BoardEngine engine = solved();
+        assertEquals(BoardEngine.CELLS, engine.getFilledCount());
+        assertEquals(0, engine.getConflictCount());
+        assertTrue(engine.isSolved());
+        assertTrue(engine.isSolvedFullScan());
+
+        // Troca dois valores da primeira linha: cada um passa a repetir na sua coluna e no bloco
+        engine.set(cell(0, 0), 3);
+        engine.set(cell(0, 1), 5);
+        assertTrue(engine.getConflictCount() > 0);
+        assertFalse(engine.isSolved());
+        assertFalse(engine.isSolvedFullScan());
+
+        engine.set(cell(0, 0), 5);
+        engine.set(cell(0, 1), 3);
+        assertEquals(0, engine.getConflictCount());
+        assertTrue(engine.isSolved());
+    }
+
+    @Test
+    public void copyFrom_isIndependentOfSource() {
+        BoardEngine source = solved();
+        BoardEngine copy = new BoardEngine();
+        copy.copyFrom(source);
+        copy.set(cell(0, 0), 0);
+        assertEquals(5, source.get(cell(0, 0)));
+        assertTrue(source.isSolved());
+        assertEquals(BoardEngine.CELLS - 1, copy.getFilledCount());
+        assertTrue(copy.canPlace(cell(0, 0), 5));
+    }
+
+    @Test
+    public void copyValuesFrom_copiesWithoutSharingArrays() {
+        BoardEngine source = solved();
+        BoardEngine copy = new BoardEngine();
+        copy.copyValuesFrom(source);
+        assertTrue(copy.isSolved());
+        source.set(cell(0, 0), 0);
+        copy.set(cell(8, 8), 0);
+        assertEquals(5, copy.get(cell(0, 0)));
+        assertEquals(9, source.get(cell(8, 8)));
+        assertEquals(BoardEngine.CELLS - 1, source.getFilledCount());
+        assertEquals(BoardEngine.CELLS - 1, copy.getFilledCount());
+    }
+}
@@ -0,0 +1,143 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Geometria de um tabuleiro de Sudoku de ordem n: blocos n x n, tabuleiro (n²) x (n²).
+ * Suporta ordens de 2 (4x4) a 6 (36x36). As tabelas de linha, coluna, bloco e vizinhas de
+ * cada célula são calculadas uma vez por ordem e compartilhadas por todos os tabuleiros.
+ */
+public final class BoardGeometry {
+    public static final int MIN_ORDER = 2;
+    public static final int MAX_ORDER = 6;
+    public static final int CLASSIC_ORDER = 3; // Sudoku tradicional 9x9
+
+    private static final BoardGeometry[] CACHE = new BoardGeometry[MAX_ORDER + 1];
+
+    static {
+        for (int order = MIN_ORDER; order <= MAX_ORDER; order++) {
+            CACHE[order] = new BoardGeometry(order);
+        }
+    }
+
+    final int order; // Tamanho do bloco (n)
+    final int size; // Tamanho do tabuleiro (n²)
+    final int cells; // Quantidade de células (n⁴)
+    final int peerCount; // Vizinhas de cada célula (linha, coluna e bloco)
+    final long fullMask; // Bits 1 a size ligados
+    final int[] rowOf;
+    final int[] colOf;
+    final int[] boxOf;
+    final int[][] peers;
+    final int[][] units; // Células de cada linha, coluna e bloco, na mesma ordem das máscaras do BoardEngine
+
+    private BoardGeometry(int order) {
+        this.order = order;
+        this.size = order * order;
+        this.cells = size * size;
+        this.peerCount = 2 * (size - 1) + (order - 1) * (order - 1);
+        this.fullMask = ((1L << size) - 1) << 1;
+        this.rowOf = new int[cells];
+        this.colOf = new int[cells];
+        this.boxOf = new int[cells];
+        this.peers = new int[cells][peerCount];
+        this.units = new int[3 * size][size];
+
+        int[] unitFill = new int[3 * size];
+        for (int cell = 0; cell < cells; cell++) {
+            rowOf[cell] = cell / size;
+            colOf[cell] = cell % size;
+            boxOf[cell] = (rowOf[cell] / order) * order + colOf[cell] / order;
+            int row = rowOf[cell];
+            int col = size + colOf[cell];
+            int box = 2 * size + boxOf[cell];
+            units[row][unitFill[row]++] = cell;
+            units[col][unitFill[col]++] = cell;
+            units[box][unitFill[box]++] = cell;
+        }
+        for (int cell = 0; cell < cells; cell++) {
+            int n = 0;
+            for (int other = 0; other < cells; other++) {
+                if (other != cell && (rowOf[other] == rowOf[cell]
+                        || colOf[other] == colOf[cell]
+                        || boxOf[other] == boxOf[cell])) {
+                    peers[cell][n++] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna a geometria de uma ordem.
+     * @param order A ordem do tabuleiro (2 a 6).
+     * @return A geometria compartilhada.
+     * @throws IllegalArgumentException se a ordem não for suportada.
+     */
+    public static BoardGeometry of(int order) {
+        if (order < MIN_ORDER || order > MAX_ORDER) {
+            throw new IllegalArgumentException("Ordem de tabuleiro não suportada: " + order
+                    + ". Deve ser entre " + MIN_ORDER + " e " + MAX_ORDER + ".");
+        }
+        return CACHE[order];
+    }
+
+    /**
+     * Retorna a geometria de um tabuleiro pelo seu tamanho (4, 9, 16, 25 ou 36).
+     * @param size O tamanho do tabuleiro.
+     * @return A geometria compartilhada.
+     * @throws IllegalArgumentException se o tamanho não for um quadrado de ordem suportada.
+     */
+    public static BoardGeometry ofSize(int size) {
+        int order = (int) Math.round(Math.sqrt(size));
+        if (order * order != size) {
+            throw new IllegalArgumentException("Tamanho de tabuleiro inválido: " + size);
+        }
+        return of(order);
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public int getPeerCount() {
+        return peerCount;
+    }
+
+    public int rowOf(int cell) {
+        return rowOf[cell];
+    }
+
+    public int colOf(int cell) {
+        return colOf[cell];
+    }
+
+    public int boxOf(int cell) {
+        return boxOf[cell];
+    }
+
+    /**
+     * Retorna as células de uma unidade.
+     * As unidades 0 a size-1 são as linhas, size a 2*size-1 as colunas e 2*size a 3*size-1 os blocos.
+     * @param unit O índice da unidade.
+     * @return As células da unidade, em ordem crescente (não modificar).
+     */
+    public int[] unit(int unit) {
+        return units[unit];
+    }
+
+    /**
+     * Converte coordenadas (linha, coluna) para o índice plano da célula.
+     * @param row A linha.
+     * @param col A coluna.
+     * @return O índice da célula.
+     */
+    public int indexOf(int row, int col) {
+        return row * size + col;
+    }
+}
@@ -0,0 +1,67 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Snapshot imutável de um tabuleiro.
+ * Compartilha os arrays do BoardEngine que o criou (copy-on-write): criar um snapshot
+ * não copia nada, e o motor só duplica os seus arrays (81 bytes de valores no 9x9) na próxima escrita.
+ * Pode ser lido por várias threads.
+ */
+public final class BoardSnapshot {
+    final int order;
+    final byte[] values;
+    final boolean[] fixed;
+    final long[] masks;
+    final int filledCount;
+    final int conflictCount;
+
+    BoardSnapshot(int order, byte[] values, boolean[] fixed, long[] masks, int filledCount, int conflictCount) {
+        this.order = order;
+        this.values = values;
+        this.fixed = fixed;
+        this.masks = masks;
+        this.filledCount = filledCount;
+        this.conflictCount = conflictCount;
+    }
+
+    /**
+     * Retorna a ordem do tabuleiro do snapshot (3 para o 9x9).
+     * @return A ordem do tabuleiro.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    /**
+     * Retorna o valor da célula no snapshot.
+     * @param cell O índice da célula.
+     * @return O valor, ou 0 se a célula estiver vazia.
+     */
+    public int get(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * Verifica se a célula é fixa no snapshot.
+     * @param cell O índice da célula.
+     * @return Verdadeiro se a célula é fixa.
+     */
+    public boolean isFixed(int cell) {
+        return fixed[cell];
+    }
+
+    /**
+     * Retorna a quantidade de células preenchidas no snapshot.
+     * @return O número de células com valor diferente de 0.
+     */
+    public int getFilledCount() {
+        return filledCount;
+    }
+
+    /**
+     * Verifica se o snapshot representa um tabuleiro resolvido.
+     * @return Verdadeiro se todas as células estão preenchidas e não há conflitos.
+     */
+    public boolean isSolved() {
+        return filledCount == values.length && conflictCount == 0;
+    }
+}
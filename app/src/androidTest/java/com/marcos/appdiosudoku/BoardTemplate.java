@@ -1,8 +1,5 @@
 package com.marcos.appdiosudoku;
 
-import br.com.dio.model.Board;
-import br.com.dio.model.Space;
-
 /**
  * Utilitário para carregar um tabuleiro de Sudoku a partir de uma string de argumentos.
  */
@@ -13,11 +10,23 @@ public class BoardTemplate {
      * Formato esperado da string: "row,col;value,isFixed row,col;value,isFixed ..."
      * Ex: "0,0;4,false 1,0;7,false 2,0;9,true ..."
      * @param args A string de argumentos.
-     * @return Um objeto Board inicializado com os dados fornecidos.
+     * @return Um objeto Board 9x9 inicializado com os dados fornecidos.
      * @throws IllegalArgumentException se a string de argumentos estiver mal formatada.
      */
     public static Board getStartingBoard(String args) {
-        Board board = new Board();
+        return getStartingBoard(args, BoardGeometry.CLASSIC_ORDER);
+    }
+
+    /**
+     * Converte uma string de argumentos em um tabuleiro de Sudoku de ordem n (n² x n²).
+     * Usa o mesmo formato de getStartingBoard(String), com valores de 1 até n².
+     * @param args A string de argumentos.
+     * @param order A ordem do tabuleiro (2 a 6; 3 para o 9x9).
+     * @return Um objeto Board inicializado com os dados fornecidos.
+     * @throws IllegalArgumentException se a string de argumentos estiver mal formatada.
+     */
+    public static Board getStartingBoard(String args, int order) {
+        Board board = new Board(order);
         if (args == null || args.isEmpty()) {
             return board; // Retorna um tabuleiro vazio se não houver argumentos
         }
@@ -43,6 +52,10 @@ public class BoardTemplate {
                 int value = Integer.parseInt(valueFixed[0]);
                 boolean isFixed = Boolean.parseBoolean(valueFixed[1]);
 
+                if (value < 0 || value > board.getSize()) {
+                    throw new IllegalArgumentException("Valor fora do intervalo do tabuleiro em: " + part);
+                }
+
                 // Define o espaço no tabuleiro
                 Space space = board.getSpace(row, col);
                 if (space != null) {
@@ -0,0 +1,222 @@
+package com.marcos.appdiosudoku;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de conflitos de um tabuleiro, mantido a cada escrita do BoardEngine.
+ * Guarda um contador por dígito em cada linha, coluna e bloco: uma escrita só precisa olhar as
+ * vizinhas quando algum desses contadores indica repetição, então o caso comum (sem conflito) custa
+ * três incrementos. Para cada célula guarda quantas vizinhas têm o mesmo dígito, e as células com
+ * conflito ficam em uma lista densa, consultada em O(conflitos) sem varrer o tabuleiro.
+ * É criado pelo BoardEngine com enableConflictTracking() e só é válido para o motor que o criou.
+ */
+public final class ConflictTracker {
+    private final BoardEngine engine;
+    private final int size;
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] peers;
+    private final int[] counts; // Contador de cada dígito em cada unidade: counts[unidade * (size + 1) + dígito]
+    private final int[] degree; // Vizinhas de cada célula com o mesmo dígito
+    private final int[] conflicting; // Células com conflito, em posições densas
+    private final int[] position; // Posição de cada célula em conflicting, ou -1
+    private int conflictingCount;
+
+    ConflictTracker(BoardEngine engine) {
+        BoardGeometry geometry = engine.getGeometry();
+        this.engine = engine;
+        this.size = geometry.size;
+        this.rowOf = geometry.rowOf;
+        this.colOf = geometry.colOf;
+        this.boxOf = geometry.boxOf;
+        this.peers = geometry.peers;
+        this.counts = new int[3 * size * (size + 1)];
+        this.degree = new int[geometry.cells];
+        this.conflicting = new int[geometry.cells];
+        this.position = new int[geometry.cells];
+        rebuild();
+    }
+
+    /**
+     * Recalcula tudo a partir dos valores do motor. Usado depois de clear, restore e copyFrom.
+     */
+    void rebuild() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(degree, 0);
+        Arrays.fill(position, -1);
+        conflictingCount = 0;
+        for (int cell = 0; cell < degree.length; cell++) {
+            int digit = engine.get(cell);
+            if (digit != 0) {
+                counts[rowSlot(cell, digit)]++;
+                counts[colSlot(cell, digit)]++;
+                counts[boxSlot(cell, digit)]++;
+            }
+        }
+        for (int cell = 0; cell < degree.length; cell++) {
+            int digit = engine.get(cell);
+            if (digit != 0 && hasRepeatedUnit(cell, digit)) {
+                int[] cellPeers = peers[cell];
+                for (int i = 0; i < cellPeers.length; i++) {
+                    if (engine.get(cellPeers[i]) == digit) {
+                        degree[cell]++;
+                    }
+                }
+                if (degree[cell] > 0) {
+                    add(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Atualiza os contadores depois que o motor gravou um novo valor na célula.
+     * @param cell O índice da célula.
+     * @param oldValue O valor anterior.
+     * @param newValue O novo valor (já gravado no motor).
+     */
+    void cellChanged(int cell, int oldValue, int newValue) {
+        if (oldValue != 0) {
+            counts[rowSlot(cell, oldValue)]--;
+            counts[colSlot(cell, oldValue)]--;
+            counts[boxSlot(cell, oldValue)]--;
+            if (degree[cell] > 0) {
+                int[] cellPeers = peers[cell];
+                for (int i = 0; i < cellPeers.length; i++) {
+                    int peer = cellPeers[i];
+                    if (engine.get(peer) == oldValue && --degree[peer] == 0) {
+                        remove(peer);
+                    }
+                }
+                degree[cell] = 0;
+                remove(cell);
+            }
+        }
+        if (newValue != 0) {
+            counts[rowSlot(cell, newValue)]++;
+            counts[colSlot(cell, newValue)]++;
+            counts[boxSlot(cell, newValue)]++;
+            if (hasRepeatedUnit(cell, newValue)) {
+                int[] cellPeers = peers[cell];
+                for (int i = 0; i < cellPeers.length; i++) {
+                    int peer = cellPeers[i];
+                    if (engine.get(peer) == newValue) {
+                        if (degree[peer]++ == 0) {
+                            add(peer);
+                        }
+                        degree[cell]++;
+                    }
+                }
+                if (degree[cell] > 0) {
+                    add(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifica pelos contadores se o dígito aparece mais de uma vez em alguma unidade da célula.
+     */
+    private boolean hasRepeatedUnit(int cell, int digit) {
+        return counts[rowSlot(cell, digit)] > 1
+                || counts[colSlot(cell, digit)] > 1
+                || counts[boxSlot(cell, digit)] > 1;
+    }
+
+    private int rowSlot(int cell, int digit) {
+        return rowOf[cell] * (size + 1) + digit;
+    }
+
+    private int colSlot(int cell, int digit) {
+        return (size + colOf[cell]) * (size + 1) + digit;
+    }
+
+    private int boxSlot(int cell, int digit) {
+        return (2 * size + boxOf[cell]) * (size + 1) + digit;
+    }
+
+    private void add(int cell) {
+        if (position[cell] < 0) {
+            position[cell] = conflictingCount;
+            conflicting[conflictingCount++] = cell;
+        }
+    }
+
+    private void remove(int cell) {
+        int pos = position[cell];
+        if (pos >= 0) {
+            int last = conflicting[--conflictingCount];
+            conflicting[pos] = last;
+            position[last] = pos;
+            position[cell] = -1;
+        }
+    }
+
+    /**
+     * Retorna quantas vezes o dígito aparece em uma unidade.
+     * @param unit A unidade: linhas em 0 até size - 1, colunas em size até 2 * size - 1, blocos depois.
+     * @param digit O dígito (1 até o tamanho).
+     * @return A quantidade de células da unidade com o dígito.
+     */
+    public int getUnitCount(int unit, int digit) {
+        return counts[unit * (size + 1) + digit];
+    }
+
+    /**
+     * Verifica se a célula repete o dígito de alguma vizinha.
+     * @param cell O índice da célula.
+     * @return Verdadeiro se a célula está em conflito.
+     */
+    public boolean isConflicting(int cell) {
+        return degree[cell] > 0;
+    }
+
+    /**
+     * Retorna quantas vizinhas da célula têm o mesmo dígito.
+     * @param cell O índice da célula.
+     * @return A quantidade de conflitos da célula.
+     */
+    public int getConflictDegree(int cell) {
+        return degree[cell];
+    }
+
+    /**
+     * Retorna a quantidade de células em conflito.
+     * @return O número de células que repetem o dígito de alguma vizinha.
+     */
+    public int getConflictingCellCount() {
+        return conflictingCount;
+    }
+
+    /**
+     * Retorna as células em conflito, em ordem qualquer, em O(conflitos).
+     * @return Um novo array com os índices das células.
+     */
+    public int[] getConflictingCells() {
+        return Arrays.copyOf(conflicting, conflictingCount);
+    }
+
+    /**
+     * Retorna os pares de vizinhas com o mesmo dígito. Percorre só as vizinhas das células em conflito.
+     * @return Um novo array com os pares em sequência (a0, b0, a1, b1, ...), com a &lt; b em cada par;
+     *     o número de pares é BoardEngine.getConflictCount().
+     */
+    public int[] getConflictPairs() {
+        int[] pairs = new int[2 * engine.getConflictCount()];
+        int n = 0;
+        for (int i = 0; i < conflictingCount; i++) {
+            int cell = conflicting[i];
+            int digit = engine.get(cell);
+            int[] cellPeers = peers[cell];
+            for (int j = 0; j < cellPeers.length; j++) {
+                int peer = cellPeers[j];
+                if (peer > cell && engine.get(peer) == digit) {
+                    pairs[n++] = cell;
+                    pairs[n++] = peer;
+                }
+            }
+        }
+        return pairs;
+    }
+}
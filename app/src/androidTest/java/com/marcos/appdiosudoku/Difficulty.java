@@ -0,0 +1,30 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Nível de dificuldade de um puzzle, definido pela técnica lógica mais elaborada
+ * necessária para resolvê-lo.
+ */
+public enum Difficulty {
+    EASY, // Resolvido só com singles
+    MEDIUM, // Precisa de pointing ou box-line
+    HARD, // Precisa de pares (naked ou hidden)
+    EXPERT; // As técnicas do HintEngine não bastam; exige tentativa e erro
+
+    /**
+     * Converte a técnica mais difícil usada numa resolução lógica completa em dificuldade.
+     * @param hardest A técnica mais elaborada usada.
+     * @return A dificuldade correspondente.
+     */
+    public static Difficulty of(Hint.Technique hardest) {
+        switch (hardest) {
+            case NAKED_SINGLE:
+            case HIDDEN_SINGLE:
+                return EASY;
+            case POINTING:
+            case BOX_LINE:
+                return MEDIUM;
+            default:
+                return HARD;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.marcos.appdiosudoku;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Uma partida sem interface, com as mesmas regras do SudokuViewModel: células fixas não mudam,
+ * só valores válidos são aceitos, os movimentos vão para o histórico de desfazer/refazer e o
+ * status passa a COMPLETE quando o tabuleiro é resolvido.
+ * Os métodos são sincronizados na própria sessão: várias threads podem usar sessões diferentes
+ * ao mesmo tempo e chamadas à mesma sessão são serializadas.
+ * Para caber muitas sessões em memória, o tabuleiro começa compartilhado com o puzzle (copy-on-write),
+ * o histórico é curto e o motor de dicas só é criado no primeiro pedido de dica.
+ */
+public final class GameSession {
+    public static final int JOURNAL_CAPACITY = 64; // Movimentos guardados por sessão
+
+    private final long id;
+    private final Board board;
+    private final BoardEngine engine; // Acesso direto às células, sem criar objetos Space
+    private MoveJournal journal; // Criado no primeiro movimento
+    private HintEngine hints; // Criado sob demanda
+    private SaveGame save; // Jogo salvo que recebe cada movimento, ou null
+    private GameStatusEnum status = GameStatusEnum.PLAYING;
+    private volatile long lastAccess; // Instante do último uso, em nanossegundos
+
+    GameSession(long id, Board puzzle) {
+        this.id = id;
+        this.board = puzzle.copyBoard();
+        this.engine = board.getEngine();
+        this.lastAccess = System.nanoTime();
+        if (board.checkWin()) {
+            status = GameStatusEnum.COMPLETE;
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Tenta definir um valor em uma célula.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @param value O valor (1 até o tamanho), ou 0 para limpar.
+     * @return Verdadeiro se o valor foi definido e é válido, falso caso contrário.
+     */
+    public synchronized boolean setCellValue(int row, int col, int value) {
+        touch();
+        int size = board.getSize();
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return false;
+        }
+        int cell = row * size + col;
+        if (engine.isFixed(cell)) {
+            return false; // Não permite alterar células fixas
+        }
+        int oldValue = engine.get(cell);
+        if (!place(row, col, value)) {
+            return false;
+        }
+        if (oldValue != value) {
+            if (journal == null) {
+                journal = new MoveJournal(JOURNAL_CAPACITY);
+            }
+            journal.record(cell, oldValue, value);
+        }
+        return true;
+    }
+
+    /**
+     * Desfaz o último movimento.
+     * @return Verdadeiro se havia movimento para desfazer.
+     */
+    public synchronized boolean undo() {
+        touch();
+        if (journal == null || !journal.canUndo()) {
+            return false;
+        }
+        int move = journal.undo();
+        replay(MoveJournal.cellOf(move), MoveJournal.oldValueOf(move));
+        return true;
+    }
+
+    /**
+     * Refaz o último movimento desfeito.
+     * @return Verdadeiro se havia movimento para refazer.
+     */
+    public synchronized boolean redo() {
+        touch();
+        if (journal == null || !journal.canRedo()) {
+            return false;
+        }
+        int move = journal.redo();
+        replay(MoveJournal.cellOf(move), MoveJournal.newValueOf(move));
+        return true;
+    }
+
+    /**
+     * Procura a próxima jogada que pode ser deduzida logicamente.
+     * @return A dica, ou null se não houver dedução possível.
+     */
+    public synchronized Hint getHint() {
+        touch();
+        if (hints == null) {
+            hints = new HintEngine(board);
+        }
+        return hints.nextHint();
+    }
+
+    /**
+     * Aplica a próxima dica, como se o jogador tivesse feito a jogada.
+     * @return Verdadeiro se havia uma dica e ela foi aplicada.
+     */
+    public synchronized boolean applyHint() {
+        Hint hint = getHint();
+        return hint != null && setCellValue(hint.getRow(), hint.getCol(), hint.getDigit());
+    }
+
+    public synchronized GameStatusEnum getStatus() {
+        return status;
+    }
+
+    /**
+     * Retorna o valor de uma célula.
+     * @param row A linha.
+     * @param col A coluna.
+     * @return O valor, ou 0 se a célula estiver vazia.
+     */
+    public synchronized int getCellValue(int row, int col) {
+        return engine.get(row * board.getSize() + col);
+    }
+
+    public synchronized boolean isCellFixed(int row, int col) {
+        return engine.isFixed(row * board.getSize() + col);
+    }
+
+    /**
+     * Ativa ou desativa o modo permissivo (ver Board.setPermissive()).
+     * @param permissive Verdadeiro para aceitar valores em conflito.
+     */
+    public synchronized void setPermissive(boolean permissive) {
+        board.setPermissive(permissive);
+    }
+
+    /**
+     * Retorna as células que repetem o dígito de alguma vizinha, em O(conflitos).
+     * @return Um novo array com os índices das células (linha * tamanho + coluna).
+     */
+    public synchronized int[] getConflictingCells() {
+        return board.getConflicts().getConflictingCells();
+    }
+
+    /**
+     * Cria um snapshot imutável do tabuleiro da sessão, que pode ser lido fora do lock.
+     * @return O snapshot.
+     */
+    public synchronized BoardSnapshot snapshot() {
+        return board.snapshot();
+    }
+
+    /**
+     * Passa a gravar cada movimento da sessão no jogo salvo.
+     * Se o jogo salvo foi aberto com SaveGame.open(), os movimentos lidos do log entram no histórico
+     * e podem ser desfeitos.
+     * O jogo salvo anterior, se houver, é fechado.
+     * @param saveGame O jogo salvo, com o mesmo tabuleiro da sessão, ou null para parar de gravar.
+     */
+    public synchronized void setSaveGame(SaveGame saveGame) {
+        closeSaveGame();
+        this.save = saveGame;
+        if (saveGame != null) {
+            if (journal == null) {
+                journal = new MoveJournal(JOURNAL_CAPACITY);
+            }
+            saveGame.restoreJournal(journal);
+        }
+    }
+
+    /**
+     * Fecha o jogo salvo da sessão, se houver. Os movimentos já gravados continuam no arquivo.
+     */
+    synchronized void closeSaveGame() {
+        if (save != null) {
+            try {
+                save.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar o jogo salvo da sessão " + id + ": " + e.getMessage());
+            }
+            save = null;
+        }
+    }
+
+    /**
+     * Retorna o instante do último uso da sessão, para expirar sessões ociosas.
+     * @return O valor de System.nanoTime() no último uso.
+     */
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    /**
+     * Coloca o valor pelo motor de dicas (se existir), grava o movimento e atualiza o status.
+     * @throws UncheckedIOException se o movimento não puder ser gravado no jogo salvo.
+     */
+    private boolean place(int row, int col, int value) {
+        int cell = row * board.getSize() + col;
+        int oldValue = engine.get(cell);
+        boolean isValid = hints != null ? hints.setValue(row, col, value) : board.setValue(row, col, value);
+        if (isValid) {
+            moved(cell, oldValue, value);
+        }
+        return isValid;
+    }
+
+    /**
+     * Aplica um valor vindo do histórico sem validar: ele restaura um estado que já existiu, e pode
+     * repetir o dígito de uma vizinha se foi gravado no modo permissivo que depois foi desativado.
+     * @throws UncheckedIOException se o movimento não puder ser gravado no jogo salvo.
+     */
+    private void replay(int cell, int value) {
+        int oldValue = engine.get(cell);
+        board.restoreValue(cell, value);
+        if (hints != null) {
+            hints.cellChanged(cell, oldValue, value);
+        }
+        moved(cell, oldValue, value);
+    }
+
+    /**
+     * Atualiza o status e grava o movimento no jogo salvo.
+     */
+    private void moved(int cell, int oldValue, int value) {
+        status = board.checkWin() ? GameStatusEnum.COMPLETE : GameStatusEnum.PLAYING;
+        if (save != null && oldValue != value) {
+            try {
+                save.append(cell, oldValue, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Erro ao gravar o movimento da sessão " + id, e);
+            }
+        }
+    }
+
+    private void touch() {
+        lastAccess = System.nanoTime();
+    }
+}
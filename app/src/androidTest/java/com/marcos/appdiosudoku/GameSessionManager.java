@@ -0,0 +1,144 @@
+package com.marcos.appdiosudoku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de partidas sem interface, para muitas sessões simultâneas na mesma JVM.
+ * As sessões ficam em um ConcurrentHashMap, que trava por posição da tabela (e não o mapa todo),
+ * e cada sessão serializa as suas próprias chamadas. Nenhuma thread fica presa a uma sessão:
+ * quem chama executa a operação, então o número de sessões é limitado só pela memória.
+ * Os métodos recebem o id da sessão e lançam IllegalArgumentException se ela não existir.
+ */
+public final class GameSessionManager {
+    private final ConcurrentHashMap<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    /**
+     * Cria uma sessão a partir de um puzzle. O puzzle não é alterado pela partida.
+     * @param puzzle O tabuleiro inicial (as pistas são as células fixas).
+     * @return O id da nova sessão.
+     */
+    public long createSession(Board puzzle) {
+        long id = nextId.incrementAndGet();
+        sessions.put(id, new GameSession(id, puzzle));
+        return id;
+    }
+
+    /**
+     * Cria uma sessão a partir de uma string no formato do BoardTemplate.
+     * @param args A string de argumentos que define o tabuleiro inicial.
+     * @return O id da nova sessão.
+     * @throws IllegalArgumentException se a string estiver mal formatada.
+     */
+    public long createSession(String args) {
+        return createSession(BoardTemplate.getStartingBoard(args));
+    }
+
+    /**
+     * Cria uma sessão a partir de um jogo salvo, que passa a receber os movimentos da sessão.
+     * @param path O arquivo do jogo salvo (ver SaveGame).
+     * @return O id da nova sessão.
+     * @throws IOException se o jogo salvo não puder ser lido.
+     */
+    public long openSession(Path path) throws IOException {
+        SaveGame save = SaveGame.open(path);
+        long id = nextId.incrementAndGet();
+        GameSession session = new GameSession(id, save.getBoard());
+        session.setSaveGame(save);
+        sessions.put(id, session);
+        return id;
+    }
+
+    /**
+     * Salva uma sessão em arquivo; os movimentos seguintes são acrescentados ao log do jogo salvo.
+     * @param id O id da sessão.
+     * @param path O arquivo do jogo salvo.
+     * @throws IOException se houver erro de escrita.
+     * @throws IllegalArgumentException se a sessão não existir.
+     */
+    public void saveSession(long id, Path path) throws IOException {
+        GameSession session = getSession(id);
+        synchronized (session) {
+            session.setSaveGame(SaveGame.create(path, Board.fromSnapshot(session.snapshot())));
+        }
+    }
+
+    /**
+     * Retorna uma sessão.
+     * @param id O id da sessão.
+     * @return A sessão.
+     * @throws IllegalArgumentException se a sessão não existir.
+     */
+    public GameSession getSession(long id) {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            throw new IllegalArgumentException("Sessão inexistente: " + id);
+        }
+        return session;
+    }
+
+    public boolean setCellValue(long id, int row, int col, int value) {
+        return getSession(id).setCellValue(row, col, value);
+    }
+
+    public boolean undo(long id) {
+        return getSession(id).undo();
+    }
+
+    public boolean redo(long id) {
+        return getSession(id).redo();
+    }
+
+    public Hint getHint(long id) {
+        return getSession(id).getHint();
+    }
+
+    public GameStatusEnum getStatus(long id) {
+        return getSession(id).getStatus();
+    }
+
+    /**
+     * Encerra uma sessão, fechando o seu jogo salvo.
+     * @param id O id da sessão.
+     * @return Verdadeiro se a sessão existia.
+     */
+    public boolean closeSession(long id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) {
+            return false;
+        }
+        session.closeSaveGame();
+        return true;
+    }
+
+    /**
+     * Encerra as sessões sem uso há mais tempo que o limite.
+     * @param maxIdleNanos O tempo máximo sem uso, em nanossegundos.
+     * @return A quantidade de sessões encerradas.
+     */
+    public int closeIdleSessions(long maxIdleNanos) {
+        long now = System.nanoTime();
+        int closed = 0;
+        for (Iterator<GameSession> it = sessions.values().iterator(); it.hasNext(); ) {
+            GameSession session = it.next();
+            if (now - session.getLastAccess() > maxIdleNanos) {
+                it.remove();
+                session.closeSaveGame();
+                closed++;
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Retorna a quantidade de sessões ativas.
+     * @return O número de sessões.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+}
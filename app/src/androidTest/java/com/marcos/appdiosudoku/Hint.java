@@ -0,0 +1,68 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Uma dica produzida pelo HintEngine: o próximo valor a colocar e a técnica que o justifica.
+ */
+public final class Hint {
+
+    /**
+     * Técnicas lógicas usadas pelo HintEngine, da mais simples para a mais elaborada.
+     */
+    public enum Technique {
+        NAKED_SINGLE, // A célula só tem um candidato
+        HIDDEN_SINGLE, // O dígito só cabe em uma célula da unidade
+        POINTING, // Dígito de um bloco restrito a uma linha ou coluna
+        BOX_LINE, // Dígito de uma linha ou coluna restrito a um bloco
+        NAKED_PAIR, // Duas células de uma unidade com os mesmos dois candidatos
+        HIDDEN_PAIR // Dois dígitos que só cabem nas mesmas duas células de uma unidade
+    }
+
+    private final int row;
+    private final int col;
+    private final int digit;
+    private final Technique technique;
+    private final Technique hardestTechnique;
+
+    Hint(int row, int col, int digit, Technique technique, Technique hardestTechnique) {
+        this.row = row;
+        this.col = col;
+        this.digit = digit;
+        this.technique = technique;
+        this.hardestTechnique = hardestTechnique;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public int getDigit() {
+        return digit;
+    }
+
+    /**
+     * Retorna a técnica que encontrou o valor (NAKED_SINGLE ou HIDDEN_SINGLE).
+     * @return A técnica da colocação.
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * Retorna a técnica mais elaborada usada para chegar à dica, incluindo as eliminações
+     * de candidatos feitas antes da colocação. Serve como medida de dificuldade do passo.
+     * @return A técnica mais difícil usada.
+     */
+    public Technique getHardestTechnique() {
+        return hardestTechnique;
+    }
+
+    @Override
+    public String toString() {
+        return "Dica: " + digit + " em (" + row + ", " + col + ") por " + technique
+                + (hardestTechnique != technique ? " após " + hardestTechnique : "");
+    }
+}
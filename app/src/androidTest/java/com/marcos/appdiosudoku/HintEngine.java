@@ -0,0 +1,358 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Motor de dicas lógicas sobre um Board.
+ * Mantém uma máscara de candidatos viva para cada célula: quando um valor é colocado, só as
+ * vizinhas da célula (20 no 9x9) são atualizadas, então pedir uma dica não recalcula os
+ * candidatos do zero. As eliminações feitas pelas técnicas (pares, pointing, box-line) também
+ * ficam guardadas e são reaproveitadas nas dicas seguintes.
+ * Todas as mudanças no tabuleiro devem passar por setValue() ou ser avisadas com cellChanged().
+ */
+public final class HintEngine {
+    private static final int NONE = -1; // Nenhuma colocação encontrada
+    private static final int CONTRADICTION = -2; // Célula ou dígito sem lugar possível
+
+    private final Board board;
+    private final BoardEngine engine;
+    private final BoardGeometry geometry;
+    private final int size;
+    private final long[] candidates; // Candidatos de cada célula vazia (bit d para o dígito d)
+    private final long[] positions; // Rascunho: posições de cada dígito dentro de uma unidade
+
+    /**
+     * Construtor do motor de dicas.
+     * @param board O tabuleiro acompanhado.
+     */
+    public HintEngine(Board board) {
+        this.board = board;
+        this.engine = board.getEngine();
+        this.geometry = engine.getGeometry();
+        this.size = geometry.size;
+        this.candidates = new long[geometry.cells];
+        this.positions = new long[size + 1];
+        rebuild();
+    }
+
+    /**
+     * Recalcula todos os candidatos a partir das máscaras do tabuleiro, descartando as eliminações.
+     * Necessário quando o tabuleiro foi alterado sem passar por este motor (por exemplo, ao carregar um jogo).
+     */
+    public void rebuild() {
+        long full = geometry.fullMask;
+        for (int cell = 0; cell < candidates.length; cell++) {
+            candidates[cell] = engine.get(cell) != 0 ? 0 : full & ~engine.usedMask(cell);
+        }
+    }
+
+    /**
+     * Define um valor no tabuleiro e atualiza os candidatos.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @param value O valor (1 até o tamanho), ou 0 para limpar.
+     * @return O resultado de Board.setValue().
+     */
+    public boolean setValue(int row, int col, int value) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            return board.setValue(row, col, value); // Deixa o Board reportar as coordenadas inválidas
+        }
+        int cell = row * size + col;
+        int oldValue = engine.get(cell);
+        boolean isValid = board.setValue(row, col, value);
+        if (isValid) {
+            cellChanged(cell, oldValue, value);
+        }
+        return isValid;
+    }
+
+    /**
+     * Avisa que uma célula mudou de valor no tabuleiro.
+     * Uma colocação atualiza só a célula e suas vizinhas. Uma remoção (desfazer, correção) recalcula
+     * todos os candidatos, pois as eliminações feitas antes podiam depender do valor removido.
+     * @param cell O índice da célula.
+     * @param oldValue O valor anterior.
+     * @param newValue O novo valor.
+     */
+    public void cellChanged(int cell, int oldValue, int newValue) {
+        if (oldValue == newValue) {
+            return;
+        }
+        if (oldValue != 0) {
+            rebuild();
+            return;
+        }
+        long clear = ~(1L << newValue);
+        candidates[cell] = 0;
+        int[] cellPeers = geometry.peers[cell];
+        for (int i = 0; i < cellPeers.length; i++) {
+            candidates[cellPeers[i]] &= clear;
+        }
+    }
+
+    /**
+     * Retorna os candidatos atuais de uma célula.
+     * @param row A linha.
+     * @param col A coluna.
+     * @return A máscara de candidatos (bit d para o dígito d), ou 0 se a célula estiver preenchida.
+     */
+    public long getCandidates(int row, int col) {
+        return candidates[row * size + col];
+    }
+
+    /**
+     * Procura o próximo valor que pode ser deduzido logicamente.
+     * Tenta primeiro os singles; se nenhum aparecer, aplica as técnicas de eliminação em ordem
+     * de dificuldade e volta aos singles assim que alguma eliminar candidatos.
+     * O tabuleiro não é alterado; para aplicar a dica, use setValue().
+     * @return A dica, ou null se as técnicas não bastam ou o tabuleiro está em contradição.
+     */
+    public Hint nextHint() {
+        Hint.Technique hardest = Hint.Technique.NAKED_SINGLE;
+        while (true) {
+            int move = findNakedSingle();
+            Hint.Technique technique = Hint.Technique.NAKED_SINGLE;
+            if (move == NONE) {
+                move = findHiddenSingle();
+                technique = Hint.Technique.HIDDEN_SINGLE;
+            }
+            if (move == CONTRADICTION) {
+                return null;
+            }
+            if (move != NONE) {
+                if (technique.compareTo(hardest) > 0) {
+                    hardest = technique;
+                }
+                int cell = move / 64;
+                return new Hint(cell / size, cell % size, move % 64, technique, hardest);
+            }
+
+            Hint.Technique applied;
+            if (applyPointing()) {
+                applied = Hint.Technique.POINTING;
+            } else if (applyBoxLine()) {
+                applied = Hint.Technique.BOX_LINE;
+            } else if (applyNakedPairs()) {
+                applied = Hint.Technique.NAKED_PAIR;
+            } else if (applyHiddenPairs()) {
+                applied = Hint.Technique.HIDDEN_PAIR;
+            } else {
+                return null; // Nenhuma técnica avança
+            }
+            if (applied.compareTo(hardest) > 0) {
+                hardest = applied;
+            }
+        }
+    }
+
+    /**
+     * Procura uma célula vazia com um único candidato.
+     * @return célula * 64 + dígito, NONE ou CONTRADICTION.
+     */
+    private int findNakedSingle() {
+        for (int cell = 0; cell < candidates.length; cell++) {
+            if (engine.get(cell) != 0) {
+                continue;
+            }
+            long c = candidates[cell];
+            if (c == 0) {
+                return CONTRADICTION;
+            }
+            if ((c & (c - 1)) == 0) {
+                return cell * 64 + Long.numberOfTrailingZeros(c);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Procura um dígito que só cabe em uma célula de alguma unidade.
+     * Para cada unidade, acumula os dígitos vistos uma vez e os vistos duas ou mais vezes.
+     * @return célula * 64 + dígito, NONE ou CONTRADICTION.
+     */
+    private int findHiddenSingle() {
+        long full = geometry.fullMask;
+        for (int unit = 0; unit < 3 * size; unit++) {
+            int[] cells = geometry.units[unit];
+            long once = 0;
+            long twice = 0;
+            long placed = 0;
+            for (int i = 0; i < size; i++) {
+                long c = candidates[cells[i]];
+                twice |= once & c;
+                once |= c;
+                placed |= 1L << engine.get(cells[i]);
+            }
+            if ((full & ~placed & ~once) != 0) {
+                return CONTRADICTION; // Dígito que falta na unidade e não cabe em nenhuma célula
+            }
+            long hidden = once & ~twice;
+            if (hidden != 0) {
+                int digit = Long.numberOfTrailingZeros(hidden);
+                for (int i = 0; i < size; i++) {
+                    if ((candidates[cells[i]] & (1L << digit)) != 0) {
+                        return cells[i] * 64 + digit;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Preenche positions[d] com as posições (índices dentro da unidade) onde o dígito d é candidato.
+     */
+    private void fillPositions(int[] cells) {
+        for (int digit = 1; digit <= size; digit++) {
+            positions[digit] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            long c = candidates[cells[i]];
+            while (c != 0) {
+                positions[Long.numberOfTrailingZeros(c)] |= 1L << i;
+                c &= c - 1;
+            }
+        }
+    }
+
+    /**
+     * Pointing: se num bloco um dígito só cabe em uma linha (ou coluna), ele sai do resto dessa linha (ou coluna).
+     */
+    private boolean applyPointing() {
+        boolean changed = false;
+        for (int box = 0; box < size; box++) {
+            int[] cells = geometry.units[2 * size + box];
+            fillPositions(cells);
+            for (int digit = 1; digit <= size; digit++) {
+                long pos = positions[digit];
+                if (pos == 0 || (pos & (pos - 1)) == 0) {
+                    continue; // Ausente ou já é um hidden single
+                }
+                int first = cells[Long.numberOfTrailingZeros(pos)];
+                boolean sameRow = true;
+                boolean sameCol = true;
+                for (long p = pos; p != 0; p &= p - 1) {
+                    int cell = cells[Long.numberOfTrailingZeros(p)];
+                    sameRow &= geometry.rowOf[cell] == geometry.rowOf[first];
+                    sameCol &= geometry.colOf[cell] == geometry.colOf[first];
+                }
+                if (sameRow) {
+                    changed |= eliminateOutsideBox(geometry.units[geometry.rowOf[first]], box, digit);
+                }
+                if (sameCol) {
+                    changed |= eliminateOutsideBox(geometry.units[size + geometry.colOf[first]], box, digit);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private boolean eliminateOutsideBox(int[] line, int box, int digit) {
+        boolean changed = false;
+        long bit = 1L << digit;
+        for (int i = 0; i < size; i++) {
+            int cell = line[i];
+            if (geometry.boxOf[cell] != box && (candidates[cell] & bit) != 0) {
+                candidates[cell] &= ~bit;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Box-line: se numa linha (ou coluna) um dígito só cabe dentro de um bloco, ele sai do resto do bloco.
+     */
+    private boolean applyBoxLine() {
+        boolean changed = false;
+        for (int unit = 0; unit < 2 * size; unit++) {
+            int[] cells = geometry.units[unit];
+            boolean isRow = unit < size;
+            fillPositions(cells);
+            for (int digit = 1; digit <= size; digit++) {
+                long pos = positions[digit];
+                if (pos == 0 || (pos & (pos - 1)) == 0) {
+                    continue;
+                }
+                int box = geometry.boxOf[cells[Long.numberOfTrailingZeros(pos)]];
+                boolean sameBox = true;
+                for (long p = pos; p != 0; p &= p - 1) {
+                    sameBox &= geometry.boxOf[cells[Long.numberOfTrailingZeros(p)]] == box;
+                }
+                if (!sameBox) {
+                    continue;
+                }
+                long bit = 1L << digit;
+                int[] boxCells = geometry.units[2 * size + box];
+                for (int i = 0; i < size; i++) {
+                    int cell = boxCells[i];
+                    int line = isRow ? geometry.rowOf[cell] : size + geometry.colOf[cell];
+                    if (line != unit && (candidates[cell] & bit) != 0) {
+                        candidates[cell] &= ~bit;
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Naked pair: duas células de uma unidade com os mesmos dois candidatos tiram esses dígitos das outras.
+     */
+    private boolean applyNakedPairs() {
+        boolean changed = false;
+        for (int unit = 0; unit < 3 * size; unit++) {
+            int[] cells = geometry.units[unit];
+            for (int i = 0; i < size; i++) {
+                long pair = candidates[cells[i]];
+                if (Long.bitCount(pair) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < size; j++) {
+                    if (candidates[cells[j]] != pair) {
+                        continue;
+                    }
+                    for (int k = 0; k < size; k++) {
+                        int cell = cells[k];
+                        if (k != i && k != j && (candidates[cell] & pair) != 0) {
+                            candidates[cell] &= ~pair;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Hidden pair: dois dígitos que só cabem nas mesmas duas células de uma unidade tiram
+     * os outros candidatos dessas células.
+     */
+    private boolean applyHiddenPairs() {
+        boolean changed = false;
+        for (int unit = 0; unit < 3 * size; unit++) {
+            int[] cells = geometry.units[unit];
+            fillPositions(cells);
+            for (int d1 = 1; d1 <= size; d1++) {
+                long pos = positions[d1];
+                if (Long.bitCount(pos) != 2) {
+                    continue;
+                }
+                for (int d2 = d1 + 1; d2 <= size; d2++) {
+                    if (positions[d2] != pos) {
+                        continue;
+                    }
+                    long pair = (1L << d1) | (1L << d2);
+                    for (long p = pos; p != 0; p &= p - 1) {
+                        int cell = cells[Long.numberOfTrailingZeros(p)];
+                        if ((candidates[cell] & ~pair) != 0) {
+                            candidates[cell] &= pair;
+                            changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,125 @@
+package com.marcos.appdiosudoku;
+
+import java.util.Arrays;
+
+/**
+ * Histograma de latências com buckets log-lineares, no estilo do HdrHistogram.
+ * Cada potência de 2 é dividida em 64 sub-buckets, o que dá erro relativo abaixo de 1,6%
+ * com um array fixo de contadores: registrar um valor não aloca.
+ * Não é thread-safe; use um por thread e junte com merge().
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7; // 2^7 valores exatos antes de começar a agrupar
+    private static final int HALF = 1 << (SUB_BITS - 1); // Sub-buckets por potência de 2
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * HALF + (1 << SUB_BITS);
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Registra um valor (por exemplo, uma latência em nanossegundos).
+     * @param value O valor a registrar; negativos contam como 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Soma os valores de outro histograma a este.
+     * @param other O histograma a ser somado.
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Retorna o valor no percentil informado.
+     * @param percentile O percentil (0-100).
+     * @return O limite superior do bucket que contém o percentil, ou 0 se o histograma estiver vazio.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * totalCount);
+        if (target < 1) {
+            target = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueIn(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Retorna a quantidade de valores registrados.
+     * @return O total de registros.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Retorna o menor valor registrado.
+     * @return O menor valor, ou 0 se o histograma estiver vazio.
+     */
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    /**
+     * Retorna o maior valor registrado.
+     * @return O maior valor, ou 0 se o histograma estiver vazio.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Zera todos os contadores.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    private static int indexOf(long value) {
+        if (value < (1 << SUB_BITS)) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    private static long highestValueIn(int index) {
+        if (index < (1 << SUB_BITS)) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long sub = index % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -1,12 +1,36 @@
 package com.marcos.appdiosudoku;
 
+import java.util.Arrays;
 
 /**
  * Classe principal para iniciar o jogo de Sudoku.
  */
 public class Main {
     public static void main(String[] args) {
-        // Concatena os argumentos passados para a aplicação JavaFX
+        // Modo em lote, sem interface: --batch <entrada> <saida> [threads]
+        if (args.length > 0 && BatchSolver.BATCH_FLAG.equals(args[0])) {
+            BatchSolver.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Classificação de dificuldade em lote: --grade <corpus> <saida> [threads]
+        if (args.length > 0 && BatchGrader.GRADE_FLAG.equals(args[0])) {
+            BatchGrader.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // Validação em lote de tabuleiros resolvidos ou parciais: --validate <corpus> <saida>
+        if (args.length > 0 && BatchValidator.VALIDATE_FLAG.equals(args[0])) {
+            BatchValidator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Fluxo de puzzles da entrada padrão ou de um pipe: --stream [--validate] [entrada|-] [threads]
+        if (args.length > 0 && PuzzleStream.STREAM_FLAG.equals(args[0])) {
+            PuzzleStream.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        // Concatena os argumentos passados para a aplicação JavaFX; o primeiro pode ser --order <n>
+        // para jogar num tabuleiro n² x n² (2 a 6; 3 para o 9x9)
         StringBuilder argsString = new StringBuilder();
         for (String arg : args) {
             argsString.append(arg).append(" ");
@@ -0,0 +1,184 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Histórico de movimentos para desfazer/refazer, guardado em um buffer circular de inteiros.
+ * Cada movimento ocupa um único int (célula, valor antigo e valor novo), então a memória é
+ * limitada pela capacidade e desfazer/refazer são O(1). Quando o buffer enche, os movimentos
+ * mais antigos são descartados.
+ */
+public final class MoveJournal {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int VALUE_BITS = 6; // Suporta valores até 63
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+    private final int[] moves; // Movimentos empacotados: célula << 12 | antigo << 6 | novo
+    private int start; // Posição do movimento mais antigo no buffer
+    private int undoCount; // Movimentos que podem ser desfeitos
+    private int redoCount; // Movimentos desfeitos que ainda podem ser refeitos
+    private boolean truncated; // Verdadeiro se algum movimento antigo foi descartado
+
+    /**
+     * Construtor com a capacidade padrão.
+     */
+    public MoveJournal() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Construtor do histórico.
+     * @param capacity A quantidade máxima de movimentos guardados.
+     */
+    public MoveJournal(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A capacidade deve ser positiva: " + capacity);
+        }
+        this.moves = new int[capacity];
+    }
+
+    /**
+     * Registra um movimento já aplicado ao tabuleiro. Descarta os movimentos que poderiam ser refeitos.
+     * @param cell O índice da célula.
+     * @param oldValue O valor anterior.
+     * @param newValue O novo valor.
+     */
+    public void record(int cell, int oldValue, int newValue) {
+        int packed = pack(cell, oldValue, newValue);
+        if (undoCount == moves.length) {
+            // Buffer cheio: sobrescreve o movimento mais antigo
+            start = (start + 1) % moves.length;
+            undoCount--;
+            truncated = true;
+        }
+        moves[(start + undoCount) % moves.length] = packed;
+        undoCount++;
+        redoCount = 0;
+    }
+
+    /**
+     * Verifica se há movimento para desfazer.
+     * @return Verdadeiro se undo() pode ser chamado.
+     */
+    public boolean canUndo() {
+        return undoCount > 0;
+    }
+
+    /**
+     * Verifica se há movimento para refazer.
+     * @return Verdadeiro se redo() pode ser chamado.
+     */
+    public boolean canRedo() {
+        return redoCount > 0;
+    }
+
+    /**
+     * Retira o último movimento do histórico de desfazer.
+     * Use cellOf/oldValueOf para saber o que restaurar.
+     * @return O movimento empacotado.
+     * @throws IllegalStateException se não houver movimento para desfazer.
+     */
+    public int undo() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("Não há movimento para desfazer");
+        }
+        undoCount--;
+        redoCount++;
+        return moves[(start + undoCount) % moves.length];
+    }
+
+    /**
+     * Retira o próximo movimento do histórico de refazer.
+     * Use cellOf/newValueOf para saber o que reaplicar.
+     * @return O movimento empacotado.
+     * @throws IllegalStateException se não houver movimento para refazer.
+     */
+    public int redo() {
+        if (redoCount == 0) {
+            throw new IllegalStateException("Não há movimento para refazer");
+        }
+        int packed = moves[(start + undoCount) % moves.length];
+        undoCount++;
+        redoCount--;
+        return packed;
+    }
+
+    /**
+     * Limpa o histórico.
+     */
+    public void clear() {
+        start = 0;
+        undoCount = 0;
+        redoCount = 0;
+        truncated = false;
+    }
+
+    /**
+     * Retorna a quantidade de movimentos que podem ser desfeitos.
+     * @return O tamanho do histórico ativo.
+     */
+    public int size() {
+        return undoCount;
+    }
+
+    /**
+     * Indica se movimentos antigos foram descartados por falta de espaço.
+     * Nesse caso replay() a partir do tabuleiro inicial não reconstrói o estado atual.
+     * @return Verdadeiro se o histórico foi truncado.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Reaplica em ordem todos os movimentos ativos (os que podem ser desfeitos) em um tabuleiro,
+     * normalmente um tabuleiro novo carregado com o mesmo puzzle, para restaurar uma sessão.
+     * @param target O tabuleiro que recebe os movimentos.
+     * @return Verdadeiro se todos os movimentos foram aceitos pelo tabuleiro.
+     */
+    public boolean replay(Board target) {
+        boolean allApplied = true;
+        for (int i = 0; i < undoCount; i++) {
+            int packed = moves[(start + i) % moves.length];
+            int cell = cellOf(packed);
+            allApplied &= target.setValue(cell / target.getSize(), cell % target.getSize(), newValueOf(packed));
+        }
+        return allApplied;
+    }
+
+    /**
+     * Empacota um movimento em um int, no mesmo formato guardado pelo histórico.
+     * @param cell O índice da célula.
+     * @param oldValue O valor anterior.
+     * @param newValue O novo valor.
+     * @return O movimento empacotado.
+     */
+    public static int pack(int cell, int oldValue, int newValue) {
+        return cell << (2 * VALUE_BITS) | oldValue << VALUE_BITS | newValue;
+    }
+
+    /**
+     * Extrai a célula de um movimento empacotado.
+     * @param packed O movimento.
+     * @return O índice da célula.
+     */
+    public static int cellOf(int packed) {
+        return packed >>> (2 * VALUE_BITS);
+    }
+
+    /**
+     * Extrai o valor anterior de um movimento empacotado.
+     * @param packed O movimento.
+     * @return O valor que a célula tinha antes do movimento.
+     */
+    public static int oldValueOf(int packed) {
+        return (packed >>> VALUE_BITS) & VALUE_MASK;
+    }
+
+    /**
+     * Extrai o novo valor de um movimento empacotado.
+     * @param packed O movimento.
+     * @return O valor colocado pelo movimento.
+     */
+    public static int newValueOf(int packed) {
+        return packed & VALUE_MASK;
+    }
+}
@@ -0,0 +1,294 @@
+package com.marcos.appdiosudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolução paralela de um único puzzle difícil, para usar vários núcleos em tabuleiros grandes.
+ * A árvore de busca é dividida na célula vazia com menos candidatos: cada candidato vira uma
+ * subtarefa de um ForkJoinPool (com roubo de tarefas), com a célula fixada no valor escolhido.
+ * Antes de cada divisão as células com um único candidato são preenchidas, para que cada nível
+ * multiplique de fato o trabalho. Abaixo da profundidade máxima, cada subtarefa resolve a sua
+ * subárvore com o SudokuSolver da sua thread.
+ * As subárvores são disjuntas, então as soluções encontradas somam. Quando o limite é atingido
+ * (a primeira solução, ou a segunda ao verificar unicidade), um sinal compartilhado faz as demais
+ * tarefas pararem na próxima verificação, sem interromper threads.
+ * Uma instância aceita resoluções simultâneas: o estado e os contadores de cada uma ficam no seu Search.
+ */
+public final class ParallelSolver {
+    private final ForkJoinPool pool;
+    private final int order;
+    private final int splitDepth; // Níveis de divisão da árvore antes da busca sequencial
+    private volatile long lastNodeCount; // Nós da última resolução concluída
+    private final ThreadLocal<SudokuSolver> solver;
+
+    /**
+     * Construtor do resolvedor paralelo.
+     * @param order A ordem dos tabuleiros (2 a 6).
+     * @param parallelism A quantidade de threads de trabalho.
+     */
+    public ParallelSolver(int order, int parallelism) {
+        this(order, parallelism, defaultSplitDepth(parallelism));
+    }
+
+    /**
+     * Construtor com a profundidade de divisão informada.
+     * @param order A ordem dos tabuleiros (2 a 6).
+     * @param parallelism A quantidade de threads de trabalho.
+     * @param splitDepth Quantos níveis da árvore viram subtarefas (0 resolve sem dividir).
+     */
+    public ParallelSolver(int order, int parallelism, int splitDepth) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("A quantidade de threads deve ser positiva: " + parallelism);
+        }
+        if (splitDepth < 0) {
+            throw new IllegalArgumentException("A profundidade de divisão não pode ser negativa: " + splitDepth);
+        }
+        BoardGeometry.of(order); // Valida a ordem
+        this.order = order;
+        this.splitDepth = splitDepth;
+        this.pool = new ForkJoinPool(parallelism);
+        this.solver = ThreadLocal.withInitial(() -> new SudokuSolver(order));
+    }
+
+    /**
+     * Profundidade que gera cerca de 8 subtarefas por thread mesmo quando cada divisão tem só 2 ramos,
+     * para o roubo de tarefas equilibrar subárvores de tamanhos muito diferentes.
+     */
+    private static int defaultSplitDepth(int parallelism) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(parallelism * 8 - 1));
+    }
+
+    /**
+     * Estado compartilhado por todas as tarefas de uma resolução.
+     */
+    private static final class Search {
+        final int maxSolutions;
+        final AtomicInteger solutions = new AtomicInteger();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<byte[]> firstSolution = new AtomicReference<>();
+        final boolean wantSolution;
+        // Contadores desta resolução, para que chamadas simultâneas não misturem os números
+        final LongAdder nodes = new LongAdder();
+        final LongAdder backtracks = new LongAdder();
+        final LongAdder propagations = new LongAdder();
+
+        Search(int maxSolutions, boolean wantSolution) {
+            this.maxSolutions = maxSolutions;
+            this.wantSolution = wantSolution;
+        }
+
+        /**
+         * Soma as soluções de uma subárvore e sinaliza a parada se o limite foi atingido.
+         */
+        void found(int count, byte[] solution) {
+            if (count == 0) {
+                return;
+            }
+            if (solution != null) {
+                firstSolution.compareAndSet(null, solution);
+            }
+            if (solutions.addAndGet(count) >= maxSolutions) {
+                done.set(true);
+            }
+        }
+    }
+
+    /**
+     * Subárvore da busca: o puzzle mais as células fixadas pelos níveis acima.
+     */
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Search search;
+        private final BoardEngine state;
+        private final int depth;
+
+        SearchTask(Search search, BoardEngine state, int depth) {
+            this.search = search;
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.done.get()) {
+                return;
+            }
+            int cell = fillSinglesAndChoose(state);
+            if (cell == DEAD_END) {
+                return;
+            }
+            if (depth >= splitDepth || cell == SOLVED) {
+                solveLeaf();
+                return;
+            }
+            long candidates = state.getGeometry().fullMask & ~state.usedMask(cell);
+            List<SearchTask> children = new ArrayList<>(Long.bitCount(candidates));
+            for (long bits = candidates; bits != 0; bits &= bits - 1) {
+                BoardEngine child = new BoardEngine(order);
+                child.copyFrom(state); // Copy-on-write: só duplica os arrays ao fixar a célula
+                child.set(cell, Long.numberOfTrailingZeros(bits));
+                child.setFixed(cell, true);
+                children.add(new SearchTask(search, child, depth + 1));
+            }
+            invokeAll(children);
+        }
+
+        private void solveLeaf() {
+            SudokuSolver leafSolver = solver.get();
+            leafSolver.setCancelSignal(search.done);
+            byte[] solution = search.wantSolution && search.firstSolution.get() == null
+                    ? new byte[state.getCells()] : null;
+            try {
+                int count = leafSolver.solve(state, search.maxSolutions, solution);
+                search.nodes.add(leafSolver.getNodeCount());
+                search.backtracks.add(leafSolver.getBacktrackCount());
+                search.propagations.add(leafSolver.getPropagationCount());
+                search.found(count, solution);
+            } finally {
+                leafSolver.setCancelSignal(null);
+            }
+        }
+    }
+
+    private static final int DEAD_END = -1; // Alguma célula vazia ficou sem candidatos
+    private static final int SOLVED = -2; // Não há célula vazia
+
+    /**
+     * Preenche (como fixas) as células com um único candidato até não haver mais nenhuma e
+     * retorna a célula vazia com menos candidatos.
+     * @return A célula escolhida, DEAD_END ou SOLVED.
+     */
+    private static int fillSinglesAndChoose(BoardEngine state) {
+        long fullMask = state.getGeometry().fullMask;
+        int cells = state.getCells();
+        boolean changed = true;
+        int best = SOLVED;
+        while (changed) {
+            changed = false;
+            best = SOLVED;
+            int bestCount = Integer.MAX_VALUE;
+            for (int cell = 0; cell < cells; cell++) {
+                if (state.get(cell) != 0) {
+                    continue;
+                }
+                long candidates = fullMask & ~state.usedMask(cell);
+                int count = Long.bitCount(candidates);
+                if (count == 0) {
+                    return DEAD_END;
+                }
+                if (count == 1) {
+                    state.set(cell, Long.numberOfTrailingZeros(candidates));
+                    state.setFixed(cell, true);
+                    changed = true;
+                } else if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Busca até maxSolutions soluções em paralelo e grava a primeira em solution.
+     * As pistas são as células fixas do motor, como no SudokuSolver; o motor não é alterado.
+     * @param puzzle O motor do tabuleiro com as pistas.
+     * @param maxSolutions O número máximo de soluções a procurar (maior que 0).
+     * @param solution Array com uma posição por célula que recebe a primeira solução, ou null para apenas contar.
+     * @return A quantidade de soluções encontradas (no máximo maxSolutions).
+     * @throws IllegalArgumentException se o tabuleiro for de outra ordem.
+     */
+    public int solve(BoardEngine puzzle, int maxSolutions, byte[] solution) {
+        if (maxSolutions <= 0) {
+            throw new IllegalArgumentException("O limite de soluções deve ser positivo: " + maxSolutions);
+        }
+        if (puzzle.getGeometry().order != order) {
+            throw new IllegalArgumentException("Resolvedor de ordem " + order + " recebeu um tabuleiro "
+                    + puzzle.getSize() + "x" + puzzle.getSize());
+        }
+        long start = SolverMetrics.startTime();
+        long allocated = SolverMetrics.allocatedBytes(); // Só a thread que chamou; as de trabalho aparecem em SOLVE
+        // Só as pistas (células fixas) entram na busca, como no SudokuSolver
+        BoardEngine root = new BoardEngine(order);
+        for (int cell = 0; cell < puzzle.getCells(); cell++) {
+            if (puzzle.isFixed(cell) && puzzle.get(cell) != 0) {
+                root.set(cell, puzzle.get(cell));
+                root.setFixed(cell, true);
+            }
+        }
+        Search search = new Search(maxSolutions, solution != null);
+        if (root.getConflictCount() == 0) { // Senão há pistas repetidas numa unidade
+            pool.invoke(new SearchTask(search, root, 0));
+            byte[] first = search.firstSolution.get();
+            if (solution != null && first != null) {
+                System.arraycopy(first, 0, solution, 0, first.length);
+            }
+        }
+        long nodes = search.nodes.sum();
+        lastNodeCount = nodes;
+        SolverMetrics.record(SolverMetrics.Operation.PARALLEL_SOLVE, puzzle.getSize(), start, allocated,
+                1, nodes, search.backtracks.sum(), search.propagations.sum());
+        return Math.min(search.solutions.get(), maxSolutions);
+    }
+
+    /**
+     * Resolve o tabuleiro em paralelo a partir das suas células fixas.
+     * @param puzzle O tabuleiro com as pistas (células fixas).
+     * @return Um novo Board com uma solução, ou null se não houver solução.
+     */
+    public Board solve(Board puzzle) {
+        byte[] solution = new byte[puzzle.getEngine().getCells()];
+        if (solve(puzzle.getEngine(), 1, solution) == 0) {
+            return null;
+        }
+        Board solved = puzzle.copyBoard();
+        BoardEngine engine = solved.getEngine();
+        for (int cell = 0; cell < solution.length; cell++) {
+            if (!engine.isFixed(cell)) {
+                engine.set(cell, solution[cell]);
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Conta as soluções em paralelo, parando assim que o limite for atingido.
+     * @param puzzle O tabuleiro com as pistas (células fixas).
+     * @param limit O número máximo de soluções a procurar (2 para verificar unicidade).
+     * @return A quantidade de soluções encontradas (no máximo limit).
+     */
+    public int countSolutions(Board puzzle, int limit) {
+        return solve(puzzle.getEngine(), limit, null);
+    }
+
+    /**
+     * Retorna a soma dos nós visitados pelas subtarefas na última resolução concluída.
+     * Cada resolução conta os seus nós à parte, então chamadas simultâneas não se misturam;
+     * com várias chamadas ao mesmo tempo, "a última" é a que terminou por último.
+     * @return A quantidade de nós.
+     */
+    public long getNodeCount() {
+        return lastNodeCount;
+    }
+
+    /**
+     * Encerra as threads de trabalho.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
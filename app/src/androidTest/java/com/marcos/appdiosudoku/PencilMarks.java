@@ -0,0 +1,138 @@
+package com.marcos.appdiosudoku;
+
+import java.util.Arrays;
+
+/**
+ * Anotações do jogador (candidatos a lápis) de cada célula, guardadas como máscaras de bits num
+ * único short[]: o bit (dígito - 1) indica que o dígito está anotado. Até o 16x16 cada célula usa
+ * um short; nos tabuleiros maiores, ceil(tamanho / 16) shorts consecutivos.
+ * No 9x9 são 81 shorts (162 bytes) por tabuleiro, sem nenhum objeto por célula.
+ * Ao gravar um valor, placed() apaga as anotações da célula e retira o dígito das vizinhas,
+ * percorrendo só a tabela de vizinhas da geometria (20 células no 9x9).
+ */
+public final class PencilMarks {
+    private static final int BITS = 16; // Dígitos por short
+
+    private final BoardGeometry geometry;
+    private final int words; // Shorts por célula
+    private final short[] marks; // marks[célula * words + (dígito - 1) / 16]
+
+    /**
+     * Construtor de anotações vazias para a geometria informada.
+     * @param geometry A geometria do tabuleiro.
+     */
+    PencilMarks(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.words = (geometry.size + BITS - 1) / BITS;
+        this.marks = new short[geometry.cells * words];
+    }
+
+    /**
+     * Verifica se um dígito está anotado na célula.
+     * @param cell O índice da célula.
+     * @param digit O dígito (1 até o tamanho do tabuleiro).
+     * @return Verdadeiro se o dígito está anotado.
+     */
+    public boolean has(int cell, int digit) {
+        int bit = digit - 1;
+        return (marks[cell * words + bit / BITS] >>> (bit % BITS) & 1) != 0;
+    }
+
+    /**
+     * Anota ou apaga um dígito na célula.
+     * @param cell O índice da célula.
+     * @param digit O dígito (1 até o tamanho do tabuleiro).
+     * @param on Verdadeiro para anotar, falso para apagar.
+     * @throws IllegalArgumentException se o dígito estiver fora do tabuleiro.
+     */
+    public void set(int cell, int digit, boolean on) {
+        if (digit < 1 || digit > geometry.size) {
+            throw new IllegalArgumentException("Dígito inválido: " + digit + ". Deve ser entre 1 e " + geometry.size + ".");
+        }
+        int bit = digit - 1;
+        int index = cell * words + bit / BITS;
+        int flag = 1 << (bit % BITS);
+        marks[index] = (short) (on ? marks[index] | flag : marks[index] & ~flag);
+    }
+
+    /**
+     * Inverte a anotação de um dígito na célula.
+     * @param cell O índice da célula.
+     * @param digit O dígito (1 até o tamanho do tabuleiro).
+     * @return Verdadeiro se o dígito ficou anotado.
+     */
+    public boolean toggle(int cell, int digit) {
+        boolean on = !has(cell, digit);
+        set(cell, digit, on);
+        return on;
+    }
+
+    /**
+     * Retorna as anotações da célula como máscara: o bit (dígito - 1) indica o dígito anotado.
+     * @param cell O índice da célula.
+     * @return A máscara (até 36 bits no 36x36).
+     */
+    public long getMask(int cell) {
+        long mask = 0;
+        int base = cell * words;
+        for (int w = 0; w < words; w++) {
+            mask |= (long) (marks[base + w] & 0xFFFF) << (w * BITS);
+        }
+        return mask;
+    }
+
+    /**
+     * Substitui as anotações da célula.
+     * @param cell O índice da célula.
+     * @param mask A máscara, com o bit (dígito - 1) para cada dígito anotado; bits além do tamanho são ignorados.
+     */
+    public void setMask(int cell, long mask) {
+        mask &= geometry.fullMask >>> 1; // fullMask usa os bits 1..tamanho; aqui o dígito d fica no bit d - 1
+        int base = cell * words;
+        for (int w = 0; w < words; w++) {
+            marks[base + w] = (short) (mask >>> (w * BITS));
+        }
+    }
+
+    /**
+     * Apaga as anotações da célula.
+     * @param cell O índice da célula.
+     */
+    public void clear(int cell) {
+        Arrays.fill(marks, cell * words, (cell + 1) * words, (short) 0);
+    }
+
+    /**
+     * Apaga todas as anotações.
+     */
+    public void clearAll() {
+        Arrays.fill(marks, (short) 0);
+    }
+
+    /**
+     * Atualiza as anotações depois que um valor foi gravado na célula: apaga as da própria célula
+     * e retira o dígito das vizinhas (linha, coluna e bloco).
+     * @param cell O índice da célula.
+     * @param digit O valor gravado; 0 (célula limpa) não altera nada.
+     */
+    void placed(int cell, int digit) {
+        if (digit == 0) {
+            return;
+        }
+        clear(cell);
+        int bit = digit - 1;
+        int offset = bit / BITS;
+        short keep = (short) ~(1 << (bit % BITS));
+        for (int peer : geometry.peers[cell]) {
+            marks[peer * words + offset] &= keep;
+        }
+    }
+
+    /**
+     * Copia as anotações de outro conjunto da mesma geometria.
+     * @param other As anotações de origem.
+     */
+    void copyFrom(PencilMarks other) {
+        System.arraycopy(other.marks, 0, marks, 0, marks.length);
+    }
+}
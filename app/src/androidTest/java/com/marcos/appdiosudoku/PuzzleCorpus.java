@@ -0,0 +1,205 @@
+package com.marcos.appdiosudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Leitor de arquivos grandes de puzzles com registros de tamanho fixo, mapeados em memória.
+ * O arquivo é mapeado com FileChannel.map em segmentos de até 2 GB (cada segmento contém
+ * um número inteiro de registros), então nada é carregado no heap e o acesso por índice é O(1).
+ * As leituras usam posições absolutas e podem ser feitas por várias threads ao mesmo tempo,
+ * desde que cada uma use o seu próprio BoardEngine.
+ */
+public final class PuzzleCorpus implements Closeable {
+
+    /**
+     * Formato dos registros do arquivo.
+     */
+    public enum Format {
+        LINE, // Linha de 81 caracteres seguida de "\n" ou "\r\n"
+        PACKED // Binário empacotado de 52 bytes (ver BoardCodec)
+    }
+
+    private final FileChannel channel;
+    private final Format format;
+    private final int recordSize; // Bytes por registro, incluindo a quebra de linha
+    private final long recordsPerSegment;
+    private final long size;
+    private final MappedByteBuffer[] segments;
+
+    private PuzzleCorpus(FileChannel channel, Format format, int recordSize) throws IOException {
+        this.channel = channel;
+        this.format = format;
+        this.recordSize = recordSize;
+        int payload = format == Format.LINE ? BoardCodec.LINE_LENGTH : BoardCodec.PACKED_SIZE;
+
+        long fileSize = channel.size();
+        long count = fileSize / recordSize;
+        if (fileSize % recordSize >= payload) {
+            count++; // Último registro sem quebra de linha
+        }
+        this.size = count;
+
+        this.recordsPerSegment = Integer.MAX_VALUE / recordSize;
+        long segmentBytes = recordsPerSegment * recordSize;
+        int segmentCount = (int) ((fileSize + segmentBytes - 1) / segmentBytes);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long start = i * segmentBytes;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentBytes, fileSize - start));
+        }
+    }
+
+    /**
+     * Abre um arquivo de puzzles no formato de linha, detectando a quebra de linha ("\n" ou "\r\n").
+     * @param path O caminho do arquivo.
+     * @return O corpus aberto.
+     * @throws IOException se houver erro de leitura ou se o primeiro registro não tiver 81 caracteres.
+     */
+    public static PuzzleCorpus open(Path path) throws IOException {
+        return open(path, Format.LINE);
+    }
+
+    /**
+     * Abre um arquivo de puzzles no formato informado.
+     * @param path O caminho do arquivo.
+     * @param format O formato dos registros.
+     * @return O corpus aberto.
+     * @throws IOException se houver erro de leitura ou se o formato não corresponder ao arquivo.
+     */
+    public static PuzzleCorpus open(Path path, Format format) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            int recordSize = format == Format.PACKED ? BoardCodec.PACKED_SIZE : detectLineRecordSize(channel);
+            return new PuzzleCorpus(channel, format, recordSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int detectLineRecordSize(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize <= BoardCodec.LINE_LENGTH) {
+            return BoardCodec.LINE_LENGTH + 1;
+        }
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                Math.min(fileSize, BoardCodec.LINE_LENGTH + 2));
+        byte first = head.get(BoardCodec.LINE_LENGTH);
+        if (first == '\n') {
+            return BoardCodec.LINE_LENGTH + 1;
+        }
+        if (first == '\r' && head.limit() > BoardCodec.LINE_LENGTH + 1 && head.get(BoardCodec.LINE_LENGTH + 1) == '\n') {
+            return BoardCodec.LINE_LENGTH + 2;
+        }
+        throw new IOException("O primeiro registro não tem " + BoardCodec.LINE_LENGTH + " caracteres");
+    }
+
+    /**
+     * Retorna a quantidade de puzzles no arquivo.
+     * @return O número de registros.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Retorna o formato dos registros.
+     * @return O formato do arquivo.
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Decodifica o puzzle de índice informado em um motor reaproveitável, sem alocar.
+     * @param index O índice do puzzle (0 a size() - 1).
+     * @param target O motor que recebe o tabuleiro.
+     * @return Verdadeiro se o registro é válido.
+     * @throws IndexOutOfBoundsException se o índice estiver fora do arquivo.
+     */
+    public boolean read(long index, BoardEngine target) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice fora do corpus: " + index + " (tamanho " + size + ")");
+        }
+        MappedByteBuffer segment = segments[(int) (index / recordsPerSegment)];
+        int offset = (int) (index % recordsPerSegment) * recordSize;
+        return format == Format.LINE
+                ? BoardCodec.parseLine(segment, offset, target)
+                : BoardCodec.unpack(segment, offset, target);
+    }
+
+    /**
+     * Retorna o puzzle de índice informado como um novo Board.
+     * @param index O índice do puzzle.
+     * @return O tabuleiro lido.
+     * @throws IllegalArgumentException se o registro estiver mal formatado.
+     */
+    public Board get(long index) {
+        Board board = new Board();
+        if (!read(index, board.getEngine())) {
+            throw new IllegalArgumentException("Registro inválido no índice " + index);
+        }
+        return board;
+    }
+
+    /**
+     * Divide o corpus em faixas contíguas de tamanho parecido, para consumidores paralelos.
+     * @param parts A quantidade desejada de faixas.
+     * @return As faixas, em ordem; nunca mais faixas que puzzles.
+     */
+    public Range[] split(int parts) {
+        if (parts <= 0) {
+            throw new IllegalArgumentException("A quantidade de faixas deve ser positiva: " + parts);
+        }
+        int count = (int) Math.max(1, Math.min(parts, size));
+        Range[] ranges = new Range[count];
+        for (int i = 0; i < count; i++) {
+            ranges[i] = new Range(size * i / count, size * (i + 1) / count);
+        }
+        return ranges;
+    }
+
+    /**
+     * Fecha o arquivo. Os mapeamentos são liberados quando coletados pelo GC.
+     * @throws IOException se houver erro ao fechar o canal.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Faixa de índices [start, end) do corpus.
+     */
+    public static final class Range {
+        private final long start;
+        private final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public long size() {
+            return end - start;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.marcos.appdiosudoku;
+
+import java.util.SplittableRandom;
+
+/**
+ * Gerador de puzzles com solução única.
+ * Monta uma grade completa aleatória (blocos da diagonal embaralhados e completados pelo
+ * SudokuSolver) e depois retira pistas em ordem aleatória, mantendo só as remoções em que
+ * a contagem de soluções, limitada a 2, continua sendo 1.
+ * Uma instância reaproveita o resolvedor e o tabuleiro de trabalho entre puzzles e não é
+ * thread-safe: use uma por thread, cada uma com o seu gerador de números aleatórios.
+ */
+public final class PuzzleGenerator {
+    public static final int DEFAULT_ATTEMPTS = 1000; // Limite de puzzles gerados em generate(Difficulty)
+
+    private final BoardGeometry geometry;
+    private final SudokuSolver solver;
+    private final PuzzleGrader grader;
+    private final SplittableRandom random;
+    private final Board work; // Tabuleiro de trabalho, copiado (copy-on-write) para cada puzzle gerado
+    private final BoardEngine engine;
+    private final byte[] solution;
+    private final int[] digits; // Rascunho para embaralhar os dígitos de um bloco
+    private final int[] order; // Ordem aleatória de remoção das células
+
+    /**
+     * Construtor de um gerador de puzzles 9x9.
+     */
+    public PuzzleGenerator() {
+        this(BoardGeometry.CLASSIC_ORDER, new SplittableRandom());
+    }
+
+    /**
+     * Construtor de um gerador de puzzles de ordem n.
+     * @param order A ordem do tabuleiro (2 a 6).
+     * @param random O gerador de números aleatórios, exclusivo desta instância.
+     */
+    public PuzzleGenerator(int order, SplittableRandom random) {
+        this.geometry = BoardGeometry.of(order);
+        this.solver = new SudokuSolver(order);
+        this.grader = new PuzzleGrader(order);
+        this.random = random;
+        this.work = new Board(order);
+        this.engine = work.getEngine();
+        this.solution = new byte[geometry.cells];
+        this.digits = new int[geometry.size];
+        this.order = new int[geometry.cells];
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            this.order[cell] = cell;
+        }
+    }
+
+    /**
+     * Gera um puzzle com solução única. As pistas são células fixas.
+     * @return O novo tabuleiro.
+     */
+    public Board generate() {
+        long start = SolverMetrics.startTime();
+        long allocated = SolverMetrics.allocatedBytes();
+        long nodes = 0;
+        long backtracks = 0;
+        int solves = 0;
+        int size = geometry.size;
+        boolean solved;
+        do {
+            engine.clear();
+            // Os blocos da diagonal não se cruzam, então podem receber permutações independentes.
+            // No 9x9 sempre existe uma grade que os completa; no 4x4 nem sempre, e aí sorteia de novo.
+            for (int b = 0; b < geometry.order; b++) {
+                int[] boxCells = geometry.units[2 * size + b * geometry.order + b];
+                for (int i = 0; i < size; i++) {
+                    digits[i] = i + 1;
+                }
+                shuffle(digits);
+                for (int i = 0; i < size; i++) {
+                    engine.set(boxCells[i], digits[i]);
+                    engine.setFixed(boxCells[i], true);
+                }
+            }
+            solved = solver.solve(engine, 1, solution) > 0;
+            nodes += solver.getNodeCount();
+            backtracks += solver.getBacktrackCount();
+            solves++;
+        } while (!solved);
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            engine.set(cell, solution[cell]);
+            engine.setFixed(cell, true);
+        }
+
+        // Retira pistas enquanto a solução continuar única
+        shuffle(order);
+        for (int i = 0; i < order.length; i++) {
+            int cell = order[i];
+            int value = engine.get(cell);
+            engine.setFixed(cell, false);
+            engine.set(cell, 0);
+            int solutions = solver.solve(engine, 2, null);
+            nodes += solver.getNodeCount();
+            backtracks += solver.getBacktrackCount();
+            solves++;
+            if (solutions != 1) {
+                engine.set(cell, value);
+                engine.setFixed(cell, true);
+            }
+        }
+        Board puzzle = work.copyBoard();
+        SolverMetrics.record(SolverMetrics.Operation.GENERATE, size, start, allocated,
+                1, nodes, backtracks, solves);
+        return puzzle;
+    }
+
+    /**
+     * Gera puzzles até obter um da dificuldade pedida, com no máximo DEFAULT_ATTEMPTS tentativas.
+     * Puzzles EXPERT são raros e podem exigir muitas tentativas.
+     * @param difficulty A dificuldade desejada.
+     * @return O novo tabuleiro; se nenhum tiver a dificuldade pedida, o de dificuldade mais próxima.
+     */
+    public Board generate(Difficulty difficulty) {
+        return generate(difficulty, DEFAULT_ATTEMPTS);
+    }
+
+    /**
+     * Gera puzzles até obter um da dificuldade pedida ou esgotar as tentativas. Algumas
+     * dificuldades podem nunca aparecer (no 4x4 não há puzzles HARD nem EXPERT), então o limite
+     * garante o término e o puzzle de dificuldade mais próxima é devolvido.
+     * @param difficulty A dificuldade desejada.
+     * @param maxAttempts A quantidade máxima de puzzles gerados.
+     * @return O novo tabuleiro; se nenhum tiver a dificuldade pedida, o de dificuldade mais próxima.
+     * @throws IllegalArgumentException se maxAttempts não for positivo.
+     */
+    public Board generate(Difficulty difficulty, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("A quantidade de tentativas deve ser positiva: " + maxAttempts);
+        }
+        Board closest = null;
+        int closestDistance = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            Board puzzle = generate();
+            int distance = Math.abs(grader.grade(puzzle).getDifficulty().ordinal() - difficulty.ordinal());
+            if (distance == 0) {
+                return puzzle;
+            }
+            if (distance < closestDistance) {
+                closest = puzzle;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Embaralha o array (Fisher-Yates).
+     */
+    private void shuffle(int[] array) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.marcos.appdiosudoku;
+
+/**
+ * Classificador de dificuldade de puzzles.
+ * Mede duas coisas: a técnica lógica mais elaborada que o HintEngine precisa para resolver o
+ * puzzle e o esforço do SudokuSolver (nós e retrocessos) ao contar até 2 soluções.
+ * Uma instância reaproveita o tabuleiro de trabalho, o motor de dicas e o resolvedor entre
+ * puzzles e não é thread-safe: use uma por thread.
+ */
+public final class PuzzleGrader {
+    private final SudokuSolver solver;
+    private final Board work; // Cópia (copy-on-write) do puzzle, resolvida passo a passo pelas dicas
+    private final HintEngine hints;
+
+    /**
+     * Construtor de um classificador de puzzles 9x9.
+     */
+    public PuzzleGrader() {
+        this(BoardGeometry.CLASSIC_ORDER);
+    }
+
+    /**
+     * Construtor de um classificador de puzzles de ordem n.
+     * @param order A ordem do tabuleiro (2 a 6).
+     */
+    public PuzzleGrader(int order) {
+        this.solver = new SudokuSolver(order);
+        this.work = new Board(order);
+        this.hints = new HintEngine(work);
+    }
+
+    /**
+     * Classifica um puzzle. As pistas são as células fixas, como no SudokuSolver;
+     * o tabuleiro pode vir de Board.loadBoard, BoardTemplate ou de um corpus.
+     * @param puzzle O puzzle.
+     * @return A classificação.
+     */
+    public Grade grade(Board puzzle) {
+        long start = SolverMetrics.startTime();
+        long allocated = SolverMetrics.allocatedBytes();
+        BoardEngine engine = puzzle.getEngine();
+        int solutions = solver.solve(engine, 2, null);
+        long nodes = solver.getNodeCount();
+        long backtracks = solver.getBacktrackCount();
+        if (solutions == 0) {
+            SolverMetrics.record(SolverMetrics.Operation.GRADE, engine.getSize(), start, allocated,
+                    1, nodes, backtracks, 0);
+            return new Grade(null, null, 0, 0, nodes, backtracks);
+        }
+
+        work.getEngine().copyValuesFrom(engine); // Sem copy-on-write: o puzzle do chamador continua dono dos arrays
+        hints.rebuild();
+        Hint.Technique hardest = Hint.Technique.NAKED_SINGLE;
+        int steps = 0;
+        Hint hint;
+        while ((hint = hints.nextHint()) != null) {
+            if (hint.getHardestTechnique().compareTo(hardest) > 0) {
+                hardest = hint.getHardestTechnique();
+            }
+            hints.setValue(hint.getRow(), hint.getCol(), hint.getDigit());
+            steps++;
+        }
+        boolean logical = work.checkWin();
+        SolverMetrics.record(SolverMetrics.Operation.GRADE, engine.getSize(), start, allocated,
+                1, nodes, backtracks, steps);
+        return new Grade(logical ? Difficulty.of(hardest) : Difficulty.EXPERT,
+                logical ? hardest : null, solutions, steps, nodes, backtracks);
+    }
+
+    /**
+     * Resultado da classificação de um puzzle.
+     */
+    public static final class Grade {
+        private final Difficulty difficulty;
+        private final Hint.Technique hardestTechnique;
+        private final int solutionCount;
+        private final int logicalSteps;
+        private final long nodes;
+        private final long backtracks;
+
+        Grade(Difficulty difficulty, Hint.Technique hardestTechnique, int solutionCount,
+              int logicalSteps, long nodes, long backtracks) {
+            this.difficulty = difficulty;
+            this.hardestTechnique = hardestTechnique;
+            this.solutionCount = solutionCount;
+            this.logicalSteps = logicalSteps;
+            this.nodes = nodes;
+            this.backtracks = backtracks;
+        }
+
+        /**
+         * Retorna a dificuldade do puzzle.
+         * @return A dificuldade, ou null se o puzzle não tem solução.
+         */
+        public Difficulty getDifficulty() {
+            return difficulty;
+        }
+
+        /**
+         * Retorna a técnica mais elaborada usada na resolução lógica.
+         * @return A técnica, ou null se as técnicas não bastam (EXPERT) ou o puzzle não tem solução.
+         */
+        public Hint.Technique getHardestTechnique() {
+            return hardestTechnique;
+        }
+
+        /**
+         * Retorna a quantidade de soluções, contadas até 2.
+         * @return 0 (sem solução), 1 (solução única) ou 2 (várias soluções).
+         */
+        public int getSolutionCount() {
+            return solutionCount;
+        }
+
+        /**
+         * Retorna quantas células as técnicas lógicas conseguiram preencher.
+         * @return A quantidade de passos lógicos.
+         */
+        public int getLogicalSteps() {
+            return logicalSteps;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getBacktracks() {
+            return backtracks;
+        }
+
+        @Override
+        public String toString() {
+            return (difficulty == null ? "-" : difficulty.name()) + ' '
+                    + (hardestTechnique == null ? "-" : hardestTechnique.name()) + ' '
+                    + solutionCount + ' ' + nodes + ' ' + backtracks;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.marcos.appdiosudoku;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Leitor de linhas de puzzle direto de bytes, sem criar Strings.
+ * Aceita quebras de linha "\n" e "\r\n". Não é thread-safe.
+ */
+final class PuzzleLineReader {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+
+    PuzzleLineReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Verifica se a próxima leitura pode avançar sem bloquear: há bytes no buffer ou a entrada
+     * informa bytes disponíveis. Em pipes e terminais, falso indica que a entrada está ociosa.
+     * @return Verdadeiro se há bytes prontos para ler.
+     * @throws IOException se houver erro ao consultar a entrada.
+     */
+    boolean ready() throws IOException {
+        return position < limit || in.available() > 0;
+    }
+
+    /**
+     * Lê a próxima linha, copiando no máximo 81 bytes para dst a partir de offset.
+     * @param dst O array de destino.
+     * @param offset A posição de destino.
+     * @return O comprimento real da linha (sem a quebra), que pode passar de 81; ou -1 no fim da entrada.
+     * @throws IOException se houver erro de leitura.
+     */
+    int readLine(byte[] dst, int offset) throws IOException {
+        int length = 0;
+        int last = -1;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (last < 0) {
+                        return -1;
+                    }
+                    return last == '\r' ? length - 1 : length;
+                }
+            }
+            byte b = buffer[position++];
+            if (b == '\n') {
+                return last == '\r' ? length - 1 : length;
+            }
+            if (length < BoardCodec.LINE_LENGTH) {
+                dst[offset + length] = b;
+            }
+            length++;
+            last = b & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.marcos.appdiosudoku;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estoque de puzzles pré-gerados, separados por dificuldade.
+ * Threads de trabalho (daemon) geram puzzles em paralelo, cada uma com o seu PuzzleGenerator,
+ * o seu PuzzleGrader e o seu gerador de números aleatórios, e os guardam como snapshots até o estoque de cada
+ * dificuldade encher. Quando não há mais o que encher, as threads esperam até um puzzle ser retirado.
+ * Uma dificuldade que não aparece em MAX_MISSES puzzles seguidos deixa de ser esperada (no 4x4,
+ * por exemplo, não há puzzles HARD nem EXPERT), para que as threads não fiquem gerando e
+ * descartando puzzles para sempre; ela volta a ser procurada quando alguém pede essa dificuldade.
+ */
+public final class PuzzlePool {
+    static final int MAX_MISSES = PuzzleGenerator.DEFAULT_ATTEMPTS; // Puzzles seguidos sem a dificuldade antes de desistir dela
+
+    private final Map<Difficulty, BlockingQueue<BoardSnapshot>> pools = new EnumMap<>(Difficulty.class);
+    private final Map<Difficulty, AtomicInteger> misses = new EnumMap<>(Difficulty.class); // Puzzles seguidos de outra dificuldade
+    private final ExecutorService workers;
+    private final Object refill = new Object(); // Monitor usado pelas threads quando o estoque está cheio
+    private volatile boolean running = true;
+
+    /**
+     * Construtor de um estoque de puzzles 9x9.
+     * @param capacity A quantidade de puzzles guardados por dificuldade.
+     * @param threads A quantidade de threads geradoras.
+     */
+    public PuzzlePool(int capacity, int threads) {
+        this(BoardGeometry.CLASSIC_ORDER, capacity, threads);
+    }
+
+    /**
+     * Construtor de um estoque de puzzles de ordem n.
+     * @param order A ordem do tabuleiro (2 a 6).
+     * @param capacity A quantidade de puzzles guardados por dificuldade.
+     * @param threads A quantidade de threads geradoras.
+     */
+    public PuzzlePool(int order, int capacity, int threads) {
+        BoardGeometry.of(order); // Valida a ordem antes de criar as threads
+        if (capacity <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Capacidade e threads devem ser positivas: " + capacity + ", " + threads);
+        }
+        for (Difficulty difficulty : Difficulty.values()) {
+            pools.put(difficulty, new ArrayBlockingQueue<>(capacity));
+            misses.put(difficulty, new AtomicInteger());
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "puzzle-pool-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.workers = Executors.newFixedThreadPool(threads, factory);
+        SplittableRandom seeds = new SplittableRandom();
+        for (int i = 0; i < threads; i++) {
+            SplittableRandom random = seeds.split();
+            workers.execute(() -> fill(new PuzzleGenerator(order, random), new PuzzleGrader(order)));
+        }
+    }
+
+    /**
+     * Laço de uma thread geradora.
+     */
+    private void fill(PuzzleGenerator generator, PuzzleGrader grader) {
+        try {
+            while (running) {
+                if (!hasWork()) {
+                    synchronized (refill) {
+                        while (running && !hasWork()) {
+                            refill.wait();
+                        }
+                    }
+                    continue;
+                }
+                Board puzzle = generator.generate();
+                Difficulty graded = grader.grade(puzzle).getDifficulty();
+                for (Difficulty difficulty : Difficulty.values()) {
+                    if (difficulty == graded) {
+                        misses.get(difficulty).set(0);
+                    } else if (pools.get(difficulty).remainingCapacity() > 0) {
+                        misses.get(difficulty).incrementAndGet();
+                    }
+                }
+                // Se o estoque dessa dificuldade estiver cheio o puzzle é descartado
+                pools.get(graded).offer(puzzle.snapshot());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Verifica se alguma dificuldade ainda tem espaço no estoque e não foi dada como inalcançável.
+     */
+    private boolean hasWork() {
+        for (Difficulty difficulty : Difficulty.values()) {
+            if (pools.get(difficulty).remainingCapacity() > 0 && misses.get(difficulty).get() < MAX_MISSES) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retira um puzzle do estoque sem esperar.
+     * @param difficulty A dificuldade desejada.
+     * @return O puzzle, ou null se não houver nenhum pronto dessa dificuldade.
+     */
+    public Board poll(Difficulty difficulty) {
+        BoardSnapshot snapshot = pools.get(difficulty).poll();
+        requested(difficulty);
+        return snapshot == null ? null : Board.fromSnapshot(snapshot);
+    }
+
+    /**
+     * Retira um puzzle do estoque, esperando até que um fique pronto.
+     * Numa dificuldade que o tamanho do tabuleiro não produz, a espera não termina.
+     * @param difficulty A dificuldade desejada.
+     * @return O puzzle.
+     * @throws InterruptedException se a thread for interrompida durante a espera.
+     */
+    public Board take(Difficulty difficulty) throws InterruptedException {
+        requested(difficulty);
+        BoardSnapshot snapshot = pools.get(difficulty).take();
+        requested(difficulty);
+        return Board.fromSnapshot(snapshot);
+    }
+
+    /**
+     * Retorna quantos puzzles de uma dificuldade estão prontos.
+     * @param difficulty A dificuldade.
+     * @return A quantidade de puzzles no estoque.
+     */
+    public int available(Difficulty difficulty) {
+        return pools.get(difficulty).size();
+    }
+
+    /**
+     * Um pedido volta a procurar a dificuldade, mesmo que ela tenha sido dada como inalcançável,
+     * e acorda as threads para repor o estoque.
+     */
+    private void requested(Difficulty difficulty) {
+        misses.get(difficulty).set(0);
+        wakeWorkers();
+    }
+
+    private void wakeWorkers() {
+        synchronized (refill) {
+            refill.notifyAll();
+        }
+    }
+
+    /**
+     * Para as threads geradoras.
+     */
+    public void shutdown() {
+        running = false;
+        wakeWorkers();
+        workers.shutdownNow();
+    }
+}
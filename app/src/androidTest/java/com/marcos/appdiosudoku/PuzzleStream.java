@@ -0,0 +1,235 @@
+package com.marcos.appdiosudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo de fluxo, para usar o motor em pipelines Unix: lê puzzles 9x9 linha a linha da entrada
+ * padrão ou de um pipe nomeado, resolve (ou valida) em paralelo e grava cada resultado na saída
+ * padrão assim que fica pronto, na mesma ordem da entrada.
+ * As linhas são agrupadas em blocos pequenos e no máximo alguns blocos por thread ficam em
+ * processamento: quando o limite é atingido, a leitura espera o bloco mais antigo terminar
+ * (contrapressão), então a memória não depende do tamanho da entrada. Quando a entrada fica
+ * ociosa (nenhum byte disponível), o bloco parcial é enviado e todos os resultados pendentes são
+ * gravados e descarregados antes de voltar a esperar, para que quem está do outro lado do pipe
+ * não fique sem resposta.
+ * Saída do modo SOLVE: a solução, ou 81 zeros para linha inválida ou puzzle sem solução.
+ * Saída do modo VALIDATE: o tabuleiro, válido 0/1 e completo 0/1, como no BatchValidator.
+ */
+public final class PuzzleStream {
+    public static final String STREAM_FLAG = "--stream"; // Argumento que ativa o modo de fluxo
+    private static final int LINE_LENGTH = BoardCodec.LINE_LENGTH;
+    private static final int CHUNK_SIZE = 256; // Puzzles por tarefa; menor que no lote, para responder antes
+    private static final int SOLVE_OUTPUT = LINE_LENGTH + 1; // Solução e quebra de linha
+    private static final int VALIDATE_OUTPUT = LINE_LENGTH + 5; // Tabuleiro, dois indicadores e a quebra de linha
+
+    /**
+     * O que fazer com cada puzzle lido.
+     */
+    public enum Mode {
+        SOLVE, // Grava a solução
+        VALIDATE // Grava se o tabuleiro é válido e se está completo
+    }
+
+    private final Mode mode;
+    private final ForkJoinPool pool;
+    private final int maxInFlight; // Limite de blocos em processamento
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Construtor do processador de fluxo.
+     * @param mode O que fazer com cada puzzle.
+     * @param parallelism A quantidade de threads de trabalho.
+     */
+    public PuzzleStream(Mode mode, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("A quantidade de threads deve ser positiva: " + parallelism);
+        }
+        this.mode = mode;
+        this.pool = new ForkJoinPool(parallelism);
+        this.maxInFlight = parallelism * 4;
+    }
+
+    /**
+     * Estado de cada thread de trabalho, reaproveitado entre blocos.
+     */
+    private static final class Worker {
+        final SudokuSolver solver = new SudokuSolver();
+        final BoardEngine engine = new BoardEngine();
+        final byte[] solution = new byte[LINE_LENGTH];
+        final BatchValidator validator = new BatchValidator();
+        final BoardBatch batch = new BoardBatch(BoardGeometry.CLASSIC_ORDER, CHUNK_SIZE);
+        final byte[] flags = new byte[CHUNK_SIZE];
+        final boolean[] readable = new boolean[CHUNK_SIZE];
+    }
+
+    /**
+     * Bloco de linhas da entrada e a saída correspondente.
+     */
+    private static final class Chunk {
+        final byte[] lines = new byte[CHUNK_SIZE * LINE_LENGTH];
+        final boolean[] wellFormed = new boolean[CHUNK_SIZE]; // Linha com exatamente 81 caracteres
+        int count;
+        byte[] output;
+    }
+
+    /**
+     * Processa a entrada até o fim, gravando os resultados à medida que ficam prontos.
+     * @param in A entrada, com um puzzle por linha.
+     * @param out A saída, que recebe um resultado por linha, na ordem da entrada.
+     * @return A quantidade de linhas processadas.
+     * @throws IOException se houver erro de leitura ou escrita (por exemplo, o pipe de saída foi fechado).
+     */
+    public long run(InputStream in, OutputStream out) throws IOException {
+        PuzzleLineReader reader = new PuzzleLineReader(in);
+        ArrayDeque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        long puzzles = 0;
+        Chunk chunk = new Chunk();
+        while (true) {
+            if (!reader.ready()) {
+                // A próxima leitura bloquearia: entrega tudo o que já foi lido antes de esperar
+                if (chunk.count > 0) {
+                    submit(chunk, inFlight, out);
+                    chunk = new Chunk();
+                }
+                while (!inFlight.isEmpty()) {
+                    out.write(inFlight.poll().join().output);
+                }
+                out.flush();
+            }
+            int length = reader.readLine(chunk.lines, chunk.count * LINE_LENGTH);
+            if (length < 0) {
+                break;
+            }
+            chunk.wellFormed[chunk.count++] = length == LINE_LENGTH;
+            puzzles++;
+            if (chunk.count == CHUNK_SIZE) {
+                submit(chunk, inFlight, out);
+                chunk = new Chunk();
+            }
+            // Grava, sem esperar, os blocos do início da fila que já terminaram
+            while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                out.write(inFlight.poll().join().output);
+            }
+        }
+        if (chunk.count > 0) {
+            submit(chunk, inFlight, out);
+        }
+        while (!inFlight.isEmpty()) {
+            out.write(inFlight.poll().join().output);
+        }
+        out.flush();
+        return puzzles;
+    }
+
+    private void submit(Chunk chunk, ArrayDeque<ForkJoinTask<Chunk>> inFlight, OutputStream out) throws IOException {
+        if (inFlight.size() >= maxInFlight) {
+            // Espera o bloco mais antigo para manter a ordem e limitar a memória
+            out.write(inFlight.poll().join().output);
+        }
+        inFlight.add(pool.submit(() -> mode == Mode.SOLVE ? solveChunk(chunk) : validateChunk(chunk)));
+    }
+
+    private Chunk solveChunk(Chunk chunk) {
+        Worker w = worker.get();
+        byte[] output = new byte[chunk.count * SOLVE_OUTPUT];
+        for (int i = 0; i < chunk.count; i++) {
+            int offset = i * SOLVE_OUTPUT;
+            boolean ok = chunk.wellFormed[i]
+                    && BoardCodec.parseLine(chunk.lines, i * LINE_LENGTH, w.engine)
+                    && w.solver.solve(w.engine, 1, w.solution) > 0;
+            for (int c = 0; c < LINE_LENGTH; c++) {
+                output[offset + c] = (byte) ('0' + (ok ? w.solution[c] : 0));
+            }
+            output[offset + LINE_LENGTH] = '\n';
+        }
+        chunk.output = output;
+        return chunk;
+    }
+
+    private Chunk validateChunk(Chunk chunk) {
+        Worker w = worker.get();
+        BoardBatch batch = w.batch;
+        batch.clear();
+        for (int i = 0; i < chunk.count; i++) {
+            w.readable[i] = chunk.wellFormed[i] && batch.addLine(chunk.lines, i * LINE_LENGTH) >= 0;
+            if (!w.readable[i]) {
+                w.engine.clear();
+                batch.add(w.engine); // Mantém a posição; sai como 81 zeros, não válido
+            }
+        }
+        w.validator.validate(batch, w.flags);
+        byte[] output = new byte[chunk.count * VALIDATE_OUTPUT];
+        int pos = 0;
+        for (int i = 0; i < chunk.count; i++) {
+            for (int cell = 0; cell < LINE_LENGTH; cell++) {
+                output[pos + cell] = (byte) ('0' + batch.get(i, cell));
+            }
+            pos += LINE_LENGTH;
+            byte flag = w.readable[i] ? w.flags[i] : 0;
+            output[pos++] = ' ';
+            output[pos++] = (byte) ((flag & BatchValidator.VALID) != 0 ? '1' : '0');
+            output[pos++] = ' ';
+            output[pos++] = (byte) ((flag & BatchValidator.COMPLETE) != 0 ? '1' : '0');
+            output[pos++] = '\n';
+        }
+        chunk.output = output;
+        return chunk;
+    }
+
+    /**
+     * Encerra as threads de trabalho.
+     */
+    public void shutdown() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ponto de entrada do modo de fluxo. Lê da entrada padrão (ou do arquivo/pipe informado)
+     * e grava na saída padrão; o resumo vai para a saída de erro.
+     * Uso: --stream [--validate] [entrada|-] [threads]
+     * @param args Os argumentos após --stream.
+     */
+    public static void main(String[] args) {
+        int next = 0;
+        Mode mode = Mode.SOLVE;
+        if (args.length > next && BatchValidator.VALIDATE_FLAG.equals(args[next])) {
+            mode = Mode.VALIDATE;
+            next++;
+        }
+        String source = args.length > next ? args[next++] : "-";
+        int threads = args.length > next ? Integer.parseInt(args[next]) : Runtime.getRuntime().availableProcessors();
+
+        PuzzleStream stream = new PuzzleStream(mode, threads);
+        // FileInputStream em vez de Files.newInputStream: o available() do canal falha em pipes nomeados.
+        // Saída sem o PrintStream de System.out, que esconderia o erro de pipe fechado.
+        try (InputStream in = "-".equals(source) ? new FileInputStream(FileDescriptor.in) : new FileInputStream(source);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16)) {
+            long start = System.nanoTime();
+            long puzzles = stream.run(in, out);
+            long elapsed = System.nanoTime() - start;
+            System.err.printf("Puzzles: %d%nTempo: %.3f s, vazão: %.0f puzzles/s%n",
+                    puzzles, elapsed / 1e9, elapsed == 0 ? 0 : puzzles * 1e9 / elapsed);
+            System.err.print(SolverMetrics.global());
+        } catch (IOException e) {
+            System.err.println("Erro no modo de fluxo: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            stream.shutdown();
+        }
+    }
+}
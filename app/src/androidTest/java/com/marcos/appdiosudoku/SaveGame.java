@@ -0,0 +1,374 @@
+package com.marcos.appdiosudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Jogo salvo em dois arquivos: um snapshot binário compacto do tabuleiro e um log de movimentos
+ * onde cada jogada é acrescentada ao final.
+ * <ul>
+ *     <li>Snapshot (o caminho informado): cabeçalho de 20 bytes (assinatura, versão, ordem e geração),
+ *     os valores empacotados (4 bits por célula até 15x15, 1 byte acima disso) e o mapa de bits das
+ *     células fixas. São 72 bytes no 9x9.</li>
+ *     <li>Log (o caminho com ".log" no final): cabeçalho de 16 bytes (assinatura, versão e geração)
+ *     seguido de um int por movimento, no formato do MoveJournal.</li>
+ * </ul>
+ * Cada jogada grava 4 bytes em vez do tabuleiro inteiro. Quando o log passa do limite, ele é
+ * compactado: um novo snapshot é gravado em arquivo temporário, substitui o anterior e o log é
+ * esvaziado. A geração liga o log ao snapshot: se o programa parar entre as duas etapas, o log
+ * antigo tem outra geração e é ignorado. Um último registro incompleto também é ignorado.
+ * Todos os registros têm tamanho fixo, então a restauração lê os dois arquivos mapeados em
+ * memória, por posição absoluta. Não é thread-safe.
+ */
+public final class SaveGame implements Closeable {
+    public static final int DEFAULT_COMPACT_THRESHOLD = 1024; // Movimentos no log antes de compactar
+    private static final int SNAPSHOT_MAGIC = 0x53444b53; // "SDKS"
+    private static final int LOG_MAGIC = 0x53444b4c; // "SDKL"
+    private static final int VERSION = 1;
+    private static final int SNAPSHOT_HEADER = 20; // Assinatura, versão, ordem e geração
+    private static final int LOG_HEADER = 16; // Assinatura, versão e geração
+    private static final int MOVE_SIZE = Integer.BYTES;
+
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final BoardEngine state; // Espelho do tabuleiro salvo, usado na compactação
+    private final int compactThreshold;
+    private final ByteBuffer moveBuffer = ByteBuffer.allocate(MOVE_SIZE);
+    private FileChannel log;
+    private long generation;
+    private int logSize; // Movimentos no log desde o último snapshot
+    private int[] restoredMoves = new int[0]; // Movimentos lidos do log ao abrir
+
+    private SaveGame(Path snapshotPath, BoardEngine state, long generation, int compactThreshold) {
+        if (compactThreshold <= 0) {
+            throw new IllegalArgumentException("O limite de compactação deve ser positivo: " + compactThreshold);
+        }
+        this.snapshotPath = snapshotPath;
+        this.logPath = logPathOf(snapshotPath);
+        this.state = state;
+        this.generation = generation;
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Cria um jogo salvo a partir do tabuleiro atual, substituindo arquivos existentes.
+     * A geração continua a dos arquivos substituídos, para que um log antigo nunca seja aplicado ao novo snapshot.
+     * @param path O arquivo do snapshot; o log fica ao lado, com ".log" no final.
+     * @param board O tabuleiro a salvar.
+     * @return O jogo salvo, pronto para receber movimentos.
+     * @throws IOException se houver erro de escrita.
+     */
+    public static SaveGame create(Path path, Board board) throws IOException {
+        return create(path, board, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Cria um jogo salvo com um limite de compactação próprio.
+     * @param path O arquivo do snapshot.
+     * @param board O tabuleiro a salvar.
+     * @param compactThreshold A quantidade de movimentos no log que dispara a compactação.
+     * @return O jogo salvo.
+     * @throws IOException se houver erro de escrita.
+     */
+    public static SaveGame create(Path path, Board board, int compactThreshold) throws IOException {
+        BoardEngine state = new BoardEngine(board.getBoxSize());
+        state.copyFrom(board.getEngine());
+        // Continua a contagem dos arquivos existentes: se o programa parar entre a troca do snapshot e
+        // o novo log, o log antigo precisa ter uma geração diferente da do novo snapshot
+        long generation = Math.max(readGeneration(path, SNAPSHOT_MAGIC, 12),
+                readGeneration(logPathOf(path), LOG_MAGIC, 8));
+        SaveGame save = new SaveGame(path, state, generation, compactThreshold);
+        save.compact();
+        return save;
+    }
+
+    /**
+     * Lê a geração do cabeçalho de um snapshot ou log existente.
+     * @return A geração, ou 0 se o arquivo não existir ou não for reconhecido.
+     */
+    private static long readGeneration(Path path, int magic, int offset) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(offset + Long.BYTES);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Lê até completar o cabeçalho ou chegar ao fim do arquivo
+            }
+        } catch (IOException e) {
+            return 0; // Arquivo ilegível: será substituído
+        }
+        if (header.hasRemaining() || header.getInt(0) != magic || header.getInt(4) != VERSION) {
+            return 0;
+        }
+        return Math.max(0, header.getLong(offset));
+    }
+
+    /**
+     * Abre um jogo salvo: lê o snapshot e reaplica os movimentos do log.
+     * @param path O arquivo do snapshot.
+     * @return O jogo salvo, pronto para receber novos movimentos.
+     * @throws IOException se o snapshot não existir, estiver corrompido ou em outro formato.
+     */
+    public static SaveGame open(Path path) throws IOException {
+        return open(path, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Abre um jogo salvo com um limite de compactação próprio.
+     * @param path O arquivo do snapshot.
+     * @param compactThreshold A quantidade de movimentos no log que dispara a compactação.
+     * @return O jogo salvo.
+     * @throws IOException se o snapshot não existir, estiver corrompido ou em outro formato.
+     */
+    public static SaveGame open(Path path, int compactThreshold) throws IOException {
+        BoardEngine state;
+        long generation;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer src = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (src.limit() < SNAPSHOT_HEADER || src.getInt(0) != SNAPSHOT_MAGIC || src.getInt(4) != VERSION) {
+                throw new IOException("Jogo salvo em formato desconhecido: " + path);
+            }
+            int order = src.getInt(8);
+            if (order < BoardGeometry.MIN_ORDER || order > BoardGeometry.MAX_ORDER) {
+                throw new IOException("Ordem inválida no jogo salvo: " + order);
+            }
+            generation = src.getLong(12);
+            state = new BoardEngine(order);
+            if (src.limit() < SNAPSHOT_HEADER + snapshotBodySize(state) || !readBoard(src, state)) {
+                throw new IOException("Jogo salvo corrompido: " + path);
+            }
+        }
+
+        SaveGame save = new SaveGame(path, state, generation, compactThreshold);
+        save.replayLog();
+        save.log = FileChannel.open(save.logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (save.logSize == 0) {
+            save.resetLog(); // Log ausente ou de outra geração
+        } else {
+            // Descarta um último registro incompleto antes de voltar a escrever
+            long end = LOG_HEADER + (long) save.logSize * MOVE_SIZE;
+            save.log.truncate(end);
+            save.log.position(end);
+        }
+        return save;
+    }
+
+    /**
+     * Lê o log mapeado em memória e aplica os movimentos da geração do snapshot.
+     */
+    private void replayLog() throws IOException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            MappedByteBuffer src = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (src.limit() < LOG_HEADER || src.getInt(0) != LOG_MAGIC || src.getInt(4) != VERSION
+                    || src.getLong(8) != generation) {
+                return;
+            }
+            int count = (src.limit() - LOG_HEADER) / MOVE_SIZE;
+            int[] moves = new int[count];
+            int cells = state.getCells();
+            int size = state.getSize();
+            for (int i = 0; i < count; i++) {
+                int move = src.getInt(LOG_HEADER + i * MOVE_SIZE);
+                int cell = MoveJournal.cellOf(move);
+                int value = MoveJournal.newValueOf(move);
+                if (cell >= cells || value > size) {
+                    count = i; // Registro inválido: o log termina aqui
+                    break;
+                }
+                state.set(cell, value);
+                moves[i] = move;
+            }
+            restoredMoves = count == moves.length ? moves : Arrays.copyOf(moves, count);
+            logSize = count;
+        }
+    }
+
+    /**
+     * Retorna um novo tabuleiro com o estado salvo (snapshot mais os movimentos do log).
+     * @return O tabuleiro.
+     */
+    public Board getBoard() {
+        return Board.fromSnapshot(state.snapshot());
+    }
+
+    /**
+     * Registra no histórico os movimentos lidos do log ao abrir, para que possam ser desfeitos.
+     * Movimentos anteriores à última compactação não estão mais no log.
+     * @param journal O histórico que recebe os movimentos.
+     */
+    public void restoreJournal(MoveJournal journal) {
+        for (int move : restoredMoves) {
+            journal.record(MoveJournal.cellOf(move), MoveJournal.oldValueOf(move), MoveJournal.newValueOf(move));
+        }
+    }
+
+    /**
+     * Acrescenta um movimento ao log. Compacta o log quando ele atinge o limite.
+     * Os dados vão para o sistema operacional; use sync() para garantir a gravação em disco.
+     * @param cell O índice da célula.
+     * @param oldValue O valor anterior.
+     * @param newValue O novo valor.
+     * @throws IOException se houver erro de escrita.
+     */
+    public void append(int cell, int oldValue, int newValue) throws IOException {
+        state.set(cell, newValue);
+        if (logSize >= compactThreshold) {
+            compact();
+            return;
+        }
+        moveBuffer.clear();
+        moveBuffer.putInt(0, MoveJournal.pack(cell, oldValue, newValue));
+        while (moveBuffer.hasRemaining()) {
+            log.write(moveBuffer);
+        }
+        logSize++;
+    }
+
+    /**
+     * Grava o estado atual em um novo snapshot e esvazia o log.
+     * @throws IOException se houver erro de escrita.
+     */
+    public void compact() throws IOException {
+        long next = generation + 1;
+        ByteBuffer dst = ByteBuffer.allocate(SNAPSHOT_HEADER + snapshotBodySize(state));
+        dst.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putInt(state.getGeometry().getOrder()).putLong(next);
+        writeBoard(state, dst);
+        dst.flip();
+        Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (dst.hasRemaining()) {
+                channel.write(dst);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = next;
+        if (log == null) {
+            log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+        resetLog();
+    }
+
+    /**
+     * Esvazia o log e grava o cabeçalho com a geração atual.
+     */
+    private void resetLog() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putInt(LOG_MAGIC).putInt(VERSION).putLong(generation);
+        header.flip();
+        log.truncate(0);
+        log.position(0);
+        while (header.hasRemaining()) {
+            log.write(header);
+        }
+        logSize = 0;
+        restoredMoves = new int[0];
+    }
+
+    /**
+     * Força a gravação em disco dos movimentos já acrescentados.
+     * @throws IOException se houver erro de escrita.
+     */
+    public void sync() throws IOException {
+        log.force(false);
+    }
+
+    /**
+     * Retorna a quantidade de movimentos no log desde o último snapshot.
+     * @return O tamanho do log.
+     */
+    public int getLogSize() {
+        return logSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Retorna o caminho do log de um jogo salvo.
+     * @param snapshotPath O arquivo do snapshot.
+     * @return O arquivo do log.
+     */
+    public static Path logPathOf(Path snapshotPath) {
+        return snapshotPath.resolveSibling(snapshotPath.getFileName() + ".log");
+    }
+
+    private static boolean nibbles(BoardEngine engine) {
+        return engine.getSize() <= 15;
+    }
+
+    private static int snapshotBodySize(BoardEngine engine) {
+        int cells = engine.getCells();
+        int valueBytes = nibbles(engine) ? (cells + 1) / 2 : cells;
+        return valueBytes + (cells + 7) / 8;
+    }
+
+    /**
+     * Grava os valores empacotados e o mapa de bits das células fixas na posição atual do buffer.
+     */
+    private static void writeBoard(BoardEngine source, ByteBuffer dst) {
+        int cells = source.getCells();
+        if (nibbles(source)) {
+            for (int cell = 0; cell < cells; cell += 2) {
+                int low = cell + 1 < cells ? source.get(cell + 1) : 0;
+                dst.put((byte) (source.get(cell) << 4 | low));
+            }
+        } else {
+            for (int cell = 0; cell < cells; cell++) {
+                dst.put((byte) source.get(cell));
+            }
+        }
+        for (int base = 0; base < cells; base += 8) {
+            int bits = 0;
+            for (int i = 0; i < 8 && base + i < cells; i++) {
+                if (source.isFixed(base + i)) {
+                    bits |= 1 << i;
+                }
+            }
+            dst.put((byte) bits);
+        }
+    }
+
+    /**
+     * Lê o corpo do snapshot (depois do cabeçalho) por posição absoluta.
+     * @return Falso se algum valor estiver fora do intervalo do tabuleiro.
+     */
+    private static boolean readBoard(ByteBuffer src, BoardEngine target) {
+        int cells = target.getCells();
+        int size = target.getSize();
+        boolean packed = nibbles(target);
+        int fixedBase = SNAPSHOT_HEADER + (packed ? (cells + 1) / 2 : cells);
+        for (int cell = 0; cell < cells; cell++) {
+            int value;
+            if (packed) {
+                int b = src.get(SNAPSHOT_HEADER + (cell >> 1));
+                value = (cell & 1) == 0 ? (b >> 4) & 0xF : b & 0xF;
+            } else {
+                value = src.get(SNAPSHOT_HEADER + cell) & 0xFF;
+            }
+            if (value > size) {
+                return false;
+            }
+            target.set(cell, value);
+            target.setFixed(cell, (src.get(fixedBase + (cell >> 3)) & (1 << (cell & 7))) != 0);
+        }
+        return true;
+    }
+}
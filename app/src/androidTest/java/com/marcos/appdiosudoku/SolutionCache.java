@@ -0,0 +1,402 @@
+package com.marcos.appdiosudoku;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de soluções e classificações de puzzles 9x9.
+ * A chave principal são as próprias pistas (as 81 células fixas, com 0 nas demais) e o seu hash de
+ * 64 bits: montar a chave custa uma passada pelas células, então um acerto sai bem mais barato que
+ * resolver de novo. A classificação só é calculada no primeiro grade() de cada puzzle; solve() não
+ * paga por ela.
+ * Opcionalmente (shareIsomorphic), uma segunda camada indexada pela forma canônica das pistas
+ * (ver BoardCanonicalizer) compartilha entradas entre puzzles equivalentes por simetria. Canonizar
+ * custa de 0,4 a 0,8 ms por puzzle, mais que resolver a maioria deles, então essa camada só é
+ * consultada quando a chave direta falha e só compensa em cargas com muitas variações do mesmo
+ * puzzle difícil.
+ * O cache é limitado: as entradas ficam em segmentos LRU (LinkedHashMap em ordem de acesso),
+ * cada um com o seu lock, e a menos usada de um segmento cheio é descartada.
+ * Pode ser usado por várias threads; cada thread tem o seu canonizador, resolvedor e classificador.
+ * Pode ser salvo em arquivo com save() e recarregado com load().
+ */
+public final class SolutionCache {
+    private static final int CELLS = BoardEngine.CELLS;
+    private static final int SEGMENTS = 16; // Quantidade de segmentos (potência de 2)
+    private static final int FILE_MAGIC = 0x53444b43; // "SDKC"
+    private static final int FILE_VERSION = 2; // 2: chave direta e classificação opcional
+    private static final int NONE = 0xFF; // Dificuldade ou técnica ausente no arquivo
+
+    private final Segment[] exact = new Segment[SEGMENTS]; // Chave: as pistas como estão no puzzle
+    private final Segment[] canonical; // Chave: a forma canônica das pistas; null se não compartilha
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Construtor do cache, indexado só pelas pistas de cada puzzle.
+     * @param capacity A quantidade máxima de puzzles guardados.
+     */
+    public SolutionCache(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * Construtor do cache.
+     * @param capacity A quantidade máxima de puzzles guardados (em cada camada).
+     * @param shareIsomorphic Verdadeiro para compartilhar entradas entre puzzles equivalentes por simetria.
+     */
+    public SolutionCache(int capacity, boolean shareIsomorphic) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A capacidade deve ser positiva: " + capacity);
+        }
+        int perSegment = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            exact[i] = new Segment(perSegment);
+        }
+        if (shareIsomorphic) {
+            canonical = new Segment[SEGMENTS];
+            for (int i = 0; i < SEGMENTS; i++) {
+                canonical[i] = new Segment(perSegment);
+            }
+        } else {
+            canonical = null;
+        }
+    }
+
+    /**
+     * Estado de cada thread: canonizador (guarda a transformação do último puzzle),
+     * resolvedor, classificador e arrays de trabalho.
+     */
+    private static final class Worker {
+        final BoardCanonicalizer canonicalizer = new BoardCanonicalizer();
+        final SudokuSolver solver = new SudokuSolver();
+        final PuzzleGrader grader = new PuzzleGrader();
+        final byte[] clues = new byte[CELLS];
+        final byte[] form = new byte[CELLS];
+        final byte[] solution = new byte[CELLS];
+    }
+
+    /**
+     * Chave do cache: as pistas (diretas ou na forma canônica) e o seu hash de 64 bits.
+     */
+    private static final class Key {
+        final byte[] form;
+        final long hash;
+
+        Key(byte[] form, long hash) {
+            this.form = form;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && Arrays.equals(((Key) o).form, form);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    /**
+     * Valor do cache: a solução na orientação da chave (null se o puzzle não tem solução) e a
+     * classificação, calculada no primeiro pedido.
+     */
+    private static final class CachedSolution {
+        final byte[] solution;
+        volatile PuzzleGrader.Grade grade;
+
+        CachedSolution(byte[] solution, PuzzleGrader.Grade grade) {
+            this.solution = solution;
+            this.grade = grade;
+        }
+    }
+
+    /**
+     * Segmento LRU com lock próprio.
+     */
+    private final class Segment {
+        private final int capacity;
+        private final LinkedHashMap<Key, CachedSolution> map = new LinkedHashMap<>(16, 0.75f, true);
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+        }
+
+        synchronized CachedSolution get(Key key) {
+            return map.get(key);
+        }
+
+        synchronized void put(Key key, CachedSolution entry) {
+            map.put(key, entry);
+            if (map.size() > capacity) {
+                // Em ordem de acesso, a primeira entrada é a menos usada
+                Iterator<CachedSolution> eldest = map.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized List<Map.Entry<Key, CachedSolution>> entries() {
+            return new ArrayList<>(map.entrySet());
+        }
+    }
+
+    /**
+     * Resolve o puzzle, consultando o cache antes de chamar o resolvedor.
+     * @param puzzle O puzzle 9x9 (as pistas são as células fixas).
+     * @return Um novo Board com a solução, ou null se o puzzle não tiver solução.
+     * @throws IllegalArgumentException se o tabuleiro não for 9x9.
+     */
+    public Board solve(Board puzzle) {
+        CachedSolution entry = lookup(puzzle, worker.get(), false);
+        if (entry.solution == null) {
+            return null;
+        }
+        Board solved = puzzle.copyBoard();
+        BoardEngine engine = solved.getEngine();
+        for (int cell = 0; cell < CELLS; cell++) {
+            if (!engine.isFixed(cell)) {
+                engine.set(cell, entry.solution[cell]);
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Classifica o puzzle, consultando o cache antes de chamar o classificador.
+     * @param puzzle O puzzle 9x9.
+     * @return A classificação.
+     * @throws IllegalArgumentException se o tabuleiro não for 9x9.
+     */
+    public PuzzleGrader.Grade grade(Board puzzle) {
+        return lookup(puzzle, worker.get(), true).grade;
+    }
+
+    /**
+     * Procura a entrada do puzzle pela chave direta e, se houver, pela forma canônica; se não
+     * existir, resolve e guarda. Com needGrade, garante que a entrada tenha a classificação.
+     */
+    private CachedSolution lookup(Board puzzle, Worker w, boolean needGrade) {
+        BoardEngine engine = puzzle.getEngine();
+        if (engine.getSize() != BoardEngine.SIZE) {
+            throw new IllegalArgumentException("Cache de soluções disponível só para tabuleiros 9x9, recebido "
+                    + engine.getSize() + "x" + engine.getSize());
+        }
+        byte[] clues = w.clues;
+        for (int cell = 0; cell < CELLS; cell++) {
+            clues[cell] = (byte) (engine.isFixed(cell) ? engine.get(cell) : 0);
+        }
+        long hash = BoardCanonicalizer.hash(clues);
+        Segment segment = segmentFor(exact, hash);
+        CachedSolution entry = segment.get(new Key(clues, hash));
+        if (entry != null) {
+            hits.increment();
+        } else {
+            entry = canonical != null ? lookupCanonical(puzzle, w, needGrade) : null;
+            if (entry == null) {
+                misses.increment();
+                byte[] solution = w.solver.solve(engine, 1, w.solution) > 0 ? w.solution.clone() : null;
+                entry = new CachedSolution(solution, null);
+            }
+            segment.put(new Key(clues.clone(), hash), entry);
+        }
+        // Classifica fora do lock; duas threads podem classificar o mesmo puzzle, com o mesmo resultado
+        if (needGrade && entry.grade == null) {
+            entry.grade = w.grader.grade(puzzle);
+        }
+        return entry;
+    }
+
+    /**
+     * Consulta a camada canônica. Num acerto, devolve uma entrada nova com a solução convertida para
+     * a orientação do puzzle; numa falha, resolve (e classifica, se pedido), guarda na camada
+     * canônica e devolve a entrada na orientação do puzzle.
+     */
+    private CachedSolution lookupCanonical(Board puzzle, Worker w, boolean needGrade) {
+        long hash = w.canonicalizer.canonicalize(puzzle.getEngine(), w.form);
+        Segment segment = segmentFor(canonical, hash);
+        CachedSolution shared = segment.get(new Key(w.form, hash));
+        if (shared != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            byte[] solution = null;
+            if (w.solver.solve(puzzle.getEngine(), 1, w.solution) > 0) {
+                solution = new byte[CELLS];
+                w.canonicalizer.toCanonical(w.solution, solution);
+            }
+            // A classificação não muda com a simetria, então vale para todos os equivalentes
+            shared = new CachedSolution(solution, needGrade ? w.grader.grade(puzzle) : null);
+            segment.put(new Key(w.form.clone(), hash), shared);
+        }
+        byte[] solution = null;
+        if (shared.solution != null) {
+            solution = new byte[CELLS];
+            w.canonicalizer.fromCanonical(shared.solution, solution);
+        }
+        return new CachedSolution(solution, shared.grade);
+    }
+
+    private static Segment segmentFor(Segment[] segments, long hash) {
+        return segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Retorna a fração das consultas atendidas pelo cache.
+     * @return A taxa de acertos (0 a 1), ou 0 se não houve consultas.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * Retorna a quantidade de puzzles guardados pela chave direta.
+     * @return O número de entradas.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : exact) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Remove todas as entradas. As métricas não são zeradas.
+     */
+    public void clear() {
+        for (Segment segment : exact) {
+            segment.clear();
+        }
+        if (canonical != null) {
+            for (Segment segment : canonical) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Salva as entradas da chave direta em um arquivo, da menos para a mais usada de cada segmento.
+     * A camada canônica não é salva; ela volta a se formar com o uso.
+     * A escrita vai para um arquivo temporário que substitui o destino ao final.
+     * @param path O arquivo de destino.
+     * @throws IOException se houver erro de escrita.
+     */
+    public void save(Path path) throws IOException {
+        List<Map.Entry<Key, CachedSolution>> entries = new ArrayList<>();
+        for (Segment segment : exact) {
+            entries.addAll(segment.entries());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<Key, CachedSolution> e : entries) {
+                CachedSolution entry = e.getValue();
+                PuzzleGrader.Grade grade = entry.grade;
+                out.write(e.getKey().form);
+                out.writeBoolean(entry.solution != null);
+                if (entry.solution != null) {
+                    out.write(entry.solution);
+                }
+                out.writeBoolean(grade != null);
+                if (grade != null) {
+                    out.writeByte(grade.getDifficulty() == null ? NONE : grade.getDifficulty().ordinal());
+                    out.writeByte(grade.getHardestTechnique() == null ? NONE : grade.getHardestTechnique().ordinal());
+                    out.writeByte(grade.getSolutionCount());
+                    out.writeInt(grade.getLogicalSteps());
+                    out.writeLong(grade.getNodes());
+                    out.writeLong(grade.getBacktracks());
+                }
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Carrega as entradas de um arquivo criado por save(), somando-as às atuais.
+     * Se o arquivo tiver mais entradas que a capacidade, as primeiras (menos usadas) são descartadas.
+     * @param path O arquivo de origem.
+     * @return A quantidade de entradas lidas.
+     * @throws IOException se o arquivo não existir, estiver corrompido ou em outro formato.
+     */
+    public int load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Arquivo de cache em formato desconhecido: " + path);
+            }
+            int count = in.readInt();
+            Difficulty[] difficulties = Difficulty.values();
+            Hint.Technique[] techniques = Hint.Technique.values();
+            for (int i = 0; i < count; i++) {
+                byte[] clues = new byte[CELLS];
+                in.readFully(clues);
+                byte[] solution = null;
+                if (in.readBoolean()) {
+                    solution = new byte[CELLS];
+                    in.readFully(solution);
+                }
+                PuzzleGrader.Grade grade = null;
+                if (in.readBoolean()) {
+                    int difficulty = in.readUnsignedByte();
+                    int technique = in.readUnsignedByte();
+                    int solutions = in.readUnsignedByte();
+                    int steps = in.readInt();
+                    long nodes = in.readLong();
+                    long backtracks = in.readLong();
+                    if ((difficulty != NONE && difficulty >= difficulties.length)
+                            || (technique != NONE && technique >= techniques.length)) {
+                        throw new IOException("Entrada inválida no arquivo de cache: " + i);
+                    }
+                    grade = new PuzzleGrader.Grade(
+                            difficulty == NONE ? null : difficulties[difficulty],
+                            technique == NONE ? null : techniques[technique],
+                            solutions, steps, nodes, backtracks);
+                }
+                long hash = BoardCanonicalizer.hash(clues);
+                segmentFor(exact, hash).put(new Key(clues, hash), new CachedSolution(solution, grade));
+            }
+            return count;
+        }
+    }
+}
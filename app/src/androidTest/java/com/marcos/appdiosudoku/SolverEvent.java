@@ -0,0 +1,48 @@
+package com.marcos.appdiosudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do JDK Flight Recorder gravado ao fim de cada operação instrumentada (ver SolverMetrics).
+ * Só é criado e gravado quando o evento está habilitado na gravação, por exemplo com
+ * -XX:StartFlightRecording e a configuração "com.marcos.appdiosudoku.Solver#enabled=true".
+ */
+@Name("com.marcos.appdiosudoku.Solver")
+@Label("Operação do Sudoku")
+@Category("Sudoku")
+@Description("Custo de uma resolução, geração, classificação ou validação de tabuleiros")
+@StackTrace(false)
+public final class SolverEvent extends Event {
+    @Label("Operação")
+    String operation;
+
+    @Label("Tamanho do tabuleiro")
+    int boardSize;
+
+    @Label("Puzzles")
+    long puzzles;
+
+    @Label("Nós visitados")
+    long nodes;
+
+    @Label("Retrocessos")
+    long backtracks;
+
+    @Label("Passos de propagação")
+    long steps;
+
+    @Label("Tempo")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+
+    @Label("Bytes alocados")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,382 @@
+package com.marcos.appdiosudoku;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.EventType;
+
+/**
+ * Registro de métricas das operações do modelo: para cada operação, contadores (chamadas, puzzles,
+ * nós, retrocessos, passos de propagação, bytes alocados, tempo total) e um histograma de latência.
+ * Os contadores são LongAdders compartilhados. Os histogramas são por thread, criados só para as
+ * operações que a thread executa; quando a thread termina (por exemplo, um trabalhador de
+ * ForkJoinPool ocioso), o histograma dela é somado a um total compartilhado e descartado na
+ * próxima consulta ou registro de thread, então a memória acompanha as threads vivas.
+ * getStats() pode ser chamado a qualquer momento em produção.
+ * Cada operação também gera um SolverEvent para o JDK Flight Recorder, se o evento estiver habilitado.
+ * Desative tudo com -Dsudoku.metrics=false. A medição de bytes alocados por operação custa duas
+ * consultas à JVM por chamada e fica desligada; ative com -Dsudoku.metrics.allocation=true.
+ */
+public final class SolverMetrics {
+    static final boolean ENABLED = !"false".equals(System.getProperty("sudoku.metrics"));
+    static final boolean ALLOCATION = ENABLED && Boolean.getBoolean("sudoku.metrics.allocation");
+
+    /**
+     * Operações instrumentadas. O significado de "passos" depende da operação.
+     * As operações se aninham: as resoluções feitas dentro de GENERATE, GRADE e PARALLEL_SOLVE
+     * também aparecem em SOLVE.
+     */
+    public enum Operation {
+        SOLVE, // SudokuSolver.solve; passos = colunas com um único candidato (jogadas forçadas)
+        PARALLEL_SOLVE, // ParallelSolver.solve; contadores somados das subtarefas
+        GENERATE, // PuzzleGenerator.generate; passos = chamadas ao resolvedor
+        GRADE, // PuzzleGrader.grade; passos = jogadas lógicas das dicas
+        VALIDATE // BatchValidator.validate; puzzles = tabuleiros do intervalo
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final SolverMetrics GLOBAL = new SolverMetrics();
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+    private static final EventType EVENT = ENABLED ? EventType.getEventType(SolverEvent.class) : null;
+
+    private final LongAdder[][] counters = new LongAdder[OPERATIONS.length][Field.COUNT];
+    private final Queue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+    private final LatencyHistogram[] retired = new LatencyHistogram[OPERATIONS.length]; // Threads encerradas
+    private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+        retireDeadThreads();
+        Recorder r = new Recorder(Thread.currentThread());
+        recorders.add(r);
+        return r;
+    });
+
+    private SolverMetrics() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            for (int f = 0; f < Field.COUNT; f++) {
+                counters[i][f] = new LongAdder();
+            }
+            retired[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Retorna o registro usado por todas as operações instrumentadas.
+     * @return O registro global.
+     */
+    public static SolverMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Histogramas de latência de uma thread, um por operação, criados no primeiro uso.
+     * Só a thread dona grava; o lock sem disputa serve para a leitura vinda de getStats().
+     */
+    private static final class Recorder {
+        final WeakReference<Thread> owner;
+        final LatencyHistogram[] latency = new LatencyHistogram[OPERATIONS.length];
+
+        Recorder(Thread owner) {
+            this.owner = new WeakReference<>(owner);
+        }
+
+        boolean isDead() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
+
+    /**
+     * Posições dos contadores de uma operação.
+     */
+    private static final class Field {
+        static final int CALLS = 0;
+        static final int PUZZLES = 1;
+        static final int NODES = 2;
+        static final int BACKTRACKS = 3;
+        static final int STEPS = 4;
+        static final int ALLOCATED = 5;
+        static final int NANOS = 6;
+        static final int COUNT = 7;
+    }
+
+    /**
+     * Instante de início de uma operação.
+     * @return System.nanoTime(), ou 0 se as métricas estiverem desativadas.
+     */
+    static long startTime() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Bytes alocados até agora pela thread atual.
+     * @return O total alocado, ou 0 se a medição de alocação estiver desligada ou a JVM não a suportar.
+     */
+    static long allocatedBytes() {
+        return ALLOCATION && THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Registra uma operação terminada no registro global e no Flight Recorder.
+     * @param operation A operação.
+     * @param boardSize O tamanho do tabuleiro (9 no 9x9).
+     * @param start O valor de startTime() no início da operação.
+     * @param allocatedBefore O valor de allocatedBytes() no início da operação.
+     * @param puzzles Quantos tabuleiros a operação tratou.
+     * @param nodes Nós visitados pela busca.
+     * @param backtracks Retrocessos da busca.
+     * @param steps Passos de propagação (ver Operation).
+     */
+    static void record(Operation operation, int boardSize, long start, long allocatedBefore,
+                       long puzzles, long nodes, long backtracks, long steps) {
+        if (!ENABLED) {
+            return;
+        }
+        long wallTime = System.nanoTime() - start;
+        long allocated = ALLOCATION ? allocatedBytes() - allocatedBefore : 0;
+        GLOBAL.add(operation, wallTime, allocated, puzzles, nodes, backtracks, steps);
+
+        if (EVENT.isEnabled()) { // Só cria o evento quando o Flight Recorder vai gravá-lo
+            SolverEvent event = new SolverEvent();
+            if (event.shouldCommit()) {
+                event.operation = operation.name();
+                event.boardSize = boardSize;
+                event.puzzles = puzzles;
+                event.nodes = nodes;
+                event.backtracks = backtracks;
+                event.steps = steps;
+                event.wallTime = wallTime;
+                event.allocatedBytes = allocated;
+                event.commit();
+            }
+        }
+    }
+
+    private void add(Operation operation, long wallTime, long allocated,
+                     long puzzles, long nodes, long backtracks, long steps) {
+        int op = operation.ordinal();
+        LongAdder[] c = counters[op];
+        c[Field.CALLS].increment();
+        c[Field.PUZZLES].add(puzzles);
+        c[Field.NODES].add(nodes);
+        c[Field.BACKTRACKS].add(backtracks);
+        c[Field.STEPS].add(steps);
+        if (allocated != 0) {
+            c[Field.ALLOCATED].add(allocated);
+        }
+        c[Field.NANOS].add(wallTime);
+
+        Recorder r = recorder.get();
+        synchronized (r) {
+            LatencyHistogram latency = r.latency[op];
+            if (latency == null) {
+                latency = new LatencyHistogram();
+                r.latency[op] = latency;
+            }
+            latency.record(wallTime);
+        }
+    }
+
+    /**
+     * Soma os histogramas das threads encerradas ao total compartilhado e descarta os seus registros.
+     */
+    private void retireDeadThreads() {
+        for (Iterator<Recorder> it = recorders.iterator(); it.hasNext(); ) {
+            Recorder r = it.next();
+            if (r.isDead()) {
+                synchronized (retired) {
+                    synchronized (r) {
+                        for (int op = 0; op < OPERATIONS.length; op++) {
+                            if (r.latency[op] != null) {
+                                retired[op].merge(r.latency[op]);
+                                r.latency[op] = null;
+                            }
+                        }
+                    }
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Junta os contadores e os histogramas de todas as threads para uma operação.
+     * @param operation A operação.
+     * @return As estatísticas acumuladas desde o início ou o último reset().
+     */
+    public Stats getStats(Operation operation) {
+        retireDeadThreads();
+        int op = operation.ordinal();
+        long[] totals = new long[Field.COUNT];
+        for (int f = 0; f < Field.COUNT; f++) {
+            totals[f] = counters[op][f].sum();
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        synchronized (retired) {
+            latency.merge(retired[op]);
+        }
+        for (Recorder r : recorders) {
+            synchronized (r) {
+                if (r.latency[op] != null) {
+                    latency.merge(r.latency[op]);
+                }
+            }
+        }
+        return new Stats(operation, totals, latency);
+    }
+
+    /**
+     * Retorna as estatísticas de todas as operações.
+     * @return Um mapa da operação para as suas estatísticas.
+     */
+    public Map<Operation, Stats> getAllStats() {
+        Map<Operation, Stats> all = new EnumMap<>(Operation.class);
+        for (Operation operation : OPERATIONS) {
+            all.put(operation, getStats(operation));
+        }
+        return all;
+    }
+
+    /**
+     * Zera os contadores e histogramas. Operações em andamento podem entrar nos contadores
+     * zerados ou não, conforme terminem antes ou depois.
+     */
+    public void reset() {
+        for (LongAdder[] c : counters) {
+            for (LongAdder adder : c) {
+                adder.reset();
+            }
+        }
+        synchronized (retired) {
+            for (LatencyHistogram latency : retired) {
+                latency.reset();
+            }
+        }
+        for (Recorder r : recorders) {
+            synchronized (r) {
+                for (LatencyHistogram latency : r.latency) {
+                    if (latency != null) {
+                        latency.reset();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retorna quantas threads ainda têm histogramas próprios no registro.
+     * @return A quantidade de threads registradas.
+     */
+    int getRecorderCount() {
+        retireDeadThreads();
+        return recorders.size();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Stats stats : getAllStats().values()) {
+            if (stats.getCalls() > 0) {
+                sb.append(stats).append(System.lineSeparator());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Estatísticas acumuladas de uma operação.
+     */
+    public static final class Stats {
+        private final Operation operation;
+        private final long[] totals;
+        private final LatencyHistogram latency;
+
+        Stats(Operation operation, long[] totals, LatencyHistogram latency) {
+            this.operation = operation;
+            this.totals = totals;
+            this.latency = latency;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public long getCalls() {
+            return totals[Field.CALLS];
+        }
+
+        public long getPuzzles() {
+            return totals[Field.PUZZLES];
+        }
+
+        public long getNodes() {
+            return totals[Field.NODES];
+        }
+
+        public long getBacktracks() {
+            return totals[Field.BACKTRACKS];
+        }
+
+        public long getSteps() {
+            return totals[Field.STEPS];
+        }
+
+        /**
+         * Retorna os bytes alocados pelas operações, medidos por thread.
+         * @return O total alocado, ou 0 sem -Dsudoku.metrics.allocation=true ou se a JVM não medir alocação por thread.
+         */
+        public long getAllocatedBytes() {
+            return totals[Field.ALLOCATED];
+        }
+
+        public long getTotalNanos() {
+            return totals[Field.NANOS];
+        }
+
+        /**
+         * Retorna o histograma de latência de cada chamada, em nanossegundos.
+         * @return Uma cópia independente do histograma.
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        @Override
+        public String toString() {
+            long calls = Math.max(1, getCalls());
+            return String.format("%s: chamadas = %d, puzzles = %d, p50 = %.1f us, p99 = %.1f us, máx = %.1f us, "
+                            + "nós/chamada = %.1f, retrocessos/chamada = %.1f, passos/chamada = %.1f, bytes/chamada = %d",
+                    operation, getCalls(), getPuzzles(),
+                    latency.getValueAtPercentile(50) / 1e3,
+                    latency.getValueAtPercentile(99) / 1e3,
+                    latency.getMax() / 1e3,
+                    (double) getNodes() / calls, (double) getBacktracks() / calls,
+                    (double) getSteps() / calls, getAllocatedBytes() / calls);
+        }
+    }
+
+    /**
+     * Contador de alocação por thread da JVM HotSpot, se disponível.
+     */
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        if (!ALLOCATION) {
+            return null;
+        }
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+                if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+                    return hotspot;
+                }
+            }
+        } catch (LinkageError | SecurityException e) {
+            // JVM sem java.management ou com.sun.management: a alocação fica em 0
+        }
+        return null;
+    }
+}
@@ -1,8 +1,10 @@
 package com.marcos.appdiosudoku;
 
 public class Space {
-    private int value; // O valor numérico (1-9) desta célula
+    private int value; // O valor numérico (1-9 no tabuleiro 9x9) desta célula
     private boolean isFixed; // Indica se o valor desta célula é fixo (inicial do puzzle)
+    private final BoardEngine engine; // Motor do tabuleiro ao qual este espaço pertence (ou null se avulso)
+    private final int cell; // Índice da célula no motor
 
     /**
      * Construtor para um espaço.
@@ -12,6 +14,19 @@ public class Space {
     public Space(int value, boolean isFixed) {
         this.value = value;
         this.isFixed = isFixed;
+        this.engine = null;
+        this.cell = -1;
+    }
+
+    /**
+     * Construtor de um espaço ligado a uma célula do motor do tabuleiro.
+     * Leituras e escritas passam direto pelo motor, mantendo as máscaras de restrição atualizadas.
+     * @param engine O motor do tabuleiro.
+     * @param cell O índice da célula.
+     */
+    Space(BoardEngine engine, int cell) {
+        this.engine = engine;
+        this.cell = cell;
     }
 
     /**
@@ -19,7 +34,7 @@ public class Space {
      * @return O valor inteiro do espaço.
      */
     public int getValue() {
-        return value;
+        return engine != null ? engine.get(cell) : value;
     }
 
     /**
@@ -27,7 +42,11 @@ public class Space {
      * @param value O novo valor a ser definido.
      */
     public void setValue(int value) {
-        if (!isFixed) {
+        if (engine != null) {
+            if (!engine.isFixed(cell)) {
+                engine.set(cell, value);
+            }
+        } else if (!isFixed) {
             this.value = value;
         }
     }
@@ -37,7 +56,7 @@ public class Space {
      * @return Verdadeiro se o valor é fixo, falso caso contrário.
      */
     public boolean isFixed() {
-        return isFixed;
+        return engine != null ? engine.isFixed(cell) : isFixed;
     }
 
     /**
@@ -45,7 +64,11 @@ public class Space {
      * @param fixed Verdadeiro para tornar o espaço fixo, falso para torná-lo mutável.
      */
     public void setFixed(boolean fixed) {
-        isFixed = fixed;
+        if (engine != null) {
+            engine.setFixed(cell, fixed);
+        } else {
+            isFixed = fixed;
+        }
     }
 
     /**
@@ -54,6 +77,6 @@ public class Space {
      */
     @Override
     public String toString() {
-        return String.valueOf(value);
+        return String.valueOf(getValue());
     }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.marcos.appdiosudoku;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolvedor de Sudoku baseado no Algoritmo X de Knuth com Dancing Links (DLX).
+ * O Sudoku é modelado como um problema de cobertura exata com 4 x células colunas
+ * (célula, linha-dígito, coluna-dígito e bloco-dígito) e células x tamanho linhas (célula x dígito);
+ * no 9x9 são 324 colunas e 729 linhas.
+ * A matriz é montada uma única vez em arrays de inteiros pré-alocados; cada resolução
+ * cobre as pistas do tabuleiro, busca e desfaz tudo ao final, sem alocar por puzzle.
+ * Uma instância resolve tabuleiros de uma única ordem e não é thread-safe: use uma por thread.
+ */
+public final class SudokuSolver {
+    private static final int ROOT = 0; // Cabeçalho raiz
+
+    private final BoardGeometry geometry;
+    private final int boardSize; // Tamanho do tabuleiro (9 no tradicional)
+    private final int cells; // Quantidade de células
+
+    // Listas duplamente ligadas em arrays: esquerda, direita, cima, baixo e coluna de cada nó
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] rowOf; // Linha da matriz (célula * tamanho + dígito - 1) de cada nó
+    private final int[] size; // Quantidade de nós ativos em cada coluna
+    private final int[] firstNode; // Primeiro nó de cada linha da matriz
+
+    // Estado de uma resolução, reaproveitado entre chamadas
+    private final boolean[] covered;
+    private final int[] givens; // Nós das pistas cobertas antes da busca
+    private final int[] stack; // Nós escolhidos na busca
+    private byte[] firstSolution; // Destino da primeira solução encontrada
+    private int givenCount;
+    private int maxSolutions;
+    private int solutionCount;
+    private long nodeCount; // Linhas da matriz tentadas na última resolução
+    private long backtrackCount; // Tentativas que não levaram a nenhuma solução
+    private long propagationCount; // Colunas com um único candidato (jogadas forçadas)
+    private AtomicBoolean cancel; // Pedido de parada vindo de outra thread, ou null
+
+    /**
+     * Construtor que monta a matriz de cobertura exata do Sudoku 9x9.
+     */
+    public SudokuSolver() {
+        this(BoardGeometry.CLASSIC_ORDER);
+    }
+
+    /**
+     * Construtor que monta a matriz de cobertura exata para tabuleiros de ordem n.
+     * @param order A ordem do tabuleiro (2 a 6).
+     */
+    public SudokuSolver(int order) {
+        this.geometry = BoardGeometry.of(order);
+        this.boardSize = geometry.size;
+        this.cells = geometry.cells;
+        int columns = 4 * cells;
+        int rows = cells * boardSize;
+        int nodes = 1 + columns + rows * 4;
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.up = new int[nodes];
+        this.down = new int[nodes];
+        this.column = new int[nodes];
+        this.rowOf = new int[nodes];
+        this.size = new int[1 + columns];
+        this.firstNode = new int[rows];
+        this.covered = new boolean[1 + columns];
+        this.givens = new int[cells];
+        this.stack = new int[cells];
+
+        // Cabeçalhos das colunas ligados em círculo com a raiz
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c == 0 ? columns : c - 1;
+            right[c] = c == columns ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        int node = columns + 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = geometry.rowOf[cell];
+            int col = geometry.colOf[cell];
+            int box = geometry.boxOf[cell];
+            for (int d = 0; d < boardSize; d++) {
+                int matrixRow = cell * boardSize + d;
+                int first = node;
+                firstNode[matrixRow] = first;
+                int[] cols = {
+                        1 + cell,
+                        1 + cells + row * boardSize + d,
+                        1 + 2 * cells + col * boardSize + d,
+                        1 + 3 * cells + box * boardSize + d
+                };
+                for (int k = 0; k < 4; k++) {
+                    int c = cols[k];
+                    column[node] = c;
+                    rowOf[node] = matrixRow;
+                    // Insere no fim da coluna
+                    up[node] = up[c];
+                    down[node] = c;
+                    down[up[c]] = node;
+                    up[c] = node;
+                    size[c]++;
+                    // Liga na linha em círculo
+                    left[node] = k == 0 ? first + 3 : node - 1;
+                    right[node] = k == 3 ? first : node + 1;
+                    node++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolve o tabuleiro a partir das suas células fixas.
+     * @param puzzle O tabuleiro com as pistas (células fixas).
+     * @return Um novo Board com a primeira solução encontrada, ou null se não houver solução.
+     */
+    public Board solve(Board puzzle) {
+        byte[] solution = new byte[cells];
+        if (solve(puzzle.getEngine(), 1, solution) == 0) {
+            return null;
+        }
+        Board solved = puzzle.copyBoard();
+        BoardEngine engine = solved.getEngine();
+        for (int cell = 0; cell < cells; cell++) {
+            if (!engine.isFixed(cell)) {
+                engine.set(cell, solution[cell]);
+            }
+        }
+        return solved;
+    }
+
+    /**
+     * Conta as soluções do tabuleiro, parando assim que o limite for atingido.
+     * Com limite 2 serve para verificar se o puzzle tem solução única.
+     * @param puzzle O tabuleiro com as pistas (células fixas).
+     * @param limit O número máximo de soluções a procurar.
+     * @return A quantidade de soluções encontradas (no máximo limit).
+     */
+    public int countSolutions(Board puzzle, int limit) {
+        return solve(puzzle.getEngine(), limit, null);
+    }
+
+    /**
+     * Caminho sem alocação: busca até maxSolutions soluções e grava a primeira em solution.
+     * As pistas são as células fixas do motor.
+     * @param puzzle O motor do tabuleiro com as pistas.
+     * @param maxSolutions O número máximo de soluções a procurar (maior que 0).
+     * @param solution Array com uma posição por célula que recebe a primeira solução, ou null para apenas contar.
+     * @return A quantidade de soluções encontradas (no máximo maxSolutions).
+     * @throws IllegalArgumentException se o tabuleiro for de outra ordem.
+     */
+    public int solve(BoardEngine puzzle, int maxSolutions, byte[] solution) {
+        if (maxSolutions <= 0) {
+            throw new IllegalArgumentException("O limite de soluções deve ser positivo: " + maxSolutions);
+        }
+        if (puzzle.getGeometry() != geometry) {
+            throw new IllegalArgumentException("Resolvedor de tabuleiros " + boardSize + "x" + boardSize
+                    + " recebeu um tabuleiro " + puzzle.getSize() + "x" + puzzle.getSize());
+        }
+        long start = SolverMetrics.startTime();
+        long allocated = SolverMetrics.allocatedBytes();
+        this.firstSolution = solution;
+        this.maxSolutions = maxSolutions;
+        this.solutionCount = 0;
+        this.nodeCount = 0;
+        this.backtrackCount = 0;
+        this.propagationCount = 0;
+
+        // Cobre as linhas das pistas; pistas repetidas numa unidade tornam o puzzle insolúvel
+        givenCount = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < cells && consistent; cell++) {
+            int value = puzzle.get(cell);
+            if (value == 0 || !puzzle.isFixed(cell)) {
+                continue;
+            }
+            int first = firstNode[cell * boardSize + value - 1];
+            int j = first;
+            do {
+                if (covered[column[j]]) {
+                    consistent = false;
+                    break;
+                }
+                j = right[j];
+            } while (j != first);
+            if (consistent) {
+                selectRow(first);
+                givens[givenCount++] = first;
+            }
+        }
+
+        if (consistent) {
+            search(0);
+        }
+
+        // Desfaz as pistas na ordem inversa, devolvendo a matriz ao estado inicial
+        for (int i = givenCount - 1; i >= 0; i--) {
+            unselectRow(givens[i]);
+        }
+        this.firstSolution = null;
+        SolverMetrics.record(SolverMetrics.Operation.SOLVE, boardSize, start, allocated,
+                1, nodeCount, backtrackCount, propagationCount);
+        return solutionCount;
+    }
+
+    /**
+     * Define um sinal de cancelamento consultado a cada nó da busca. Quando ele fica verdadeiro,
+     * a resolução em andamento para e retorna as soluções encontradas até ali.
+     * Usado pelo ParallelSolver para interromper as subárvores quando o resultado já é conhecido.
+     * @param cancel O sinal compartilhado, ou null para nunca cancelar.
+     */
+    public void setCancelSignal(AtomicBoolean cancel) {
+        this.cancel = cancel;
+    }
+
+    /**
+     * Retorna quantas linhas da matriz (célula e dígito) foram tentadas na última resolução.
+     * Mede o esforço de busca: puzzles resolvidos só por propagação ficam perto do número de células vazias.
+     * @return A quantidade de nós visitados.
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Retorna quantas tentativas da última resolução não levaram a nenhuma solução.
+     * Ao contar até 2 soluções, inclui os becos sem saída percorridos para provar a unicidade.
+     * @return A quantidade de retrocessos.
+     */
+    public long getBacktrackCount() {
+        return backtrackCount;
+    }
+
+    /**
+     * Retorna quantas escolhas da última resolução foram forçadas (coluna com um único candidato).
+     * @return A quantidade de passos de propagação.
+     */
+    public long getPropagationCount() {
+        return propagationCount;
+    }
+
+    /**
+     * Busca recursiva do Algoritmo X, escolhendo sempre a coluna com menos candidatos.
+     * @return Verdadeiro se o limite de soluções foi atingido e a busca deve parar.
+     */
+    private boolean search(int depth) {
+        if (right[ROOT] == ROOT) {
+            if (solutionCount == 0 && firstSolution != null) {
+                recordSolution(depth);
+            }
+            solutionCount++;
+            return solutionCount >= maxSolutions;
+        }
+
+        int best = right[ROOT];
+        for (int c = right[best]; c != ROOT; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+                if (size[c] <= 1) {
+                    break;
+                }
+            }
+        }
+        if (size[best] == 0) {
+            return false;
+        }
+        if (size[best] == 1) {
+            propagationCount++;
+        }
+
+        cover(best);
+        boolean done = false;
+        for (int r = down[best]; r != best && !done; r = down[r]) {
+            if (cancel != null && cancel.get()) {
+                done = true;
+                break;
+            }
+            stack[depth] = r;
+            nodeCount++;
+            int solutionsBefore = solutionCount;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            done = search(depth + 1);
+            if (solutionCount == solutionsBefore) {
+                backtrackCount++; // Tentativa que não levou a nenhuma solução
+            }
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(best);
+        return done;
+    }
+
+    /**
+     * Grava a solução atual: linhas das pistas mais as linhas escolhidas na busca.
+     */
+    private void recordSolution(int depth) {
+        for (int i = 0; i < givenCount; i++) {
+            writeRow(givens[i]);
+        }
+        for (int i = 0; i < depth; i++) {
+            writeRow(stack[i]);
+        }
+    }
+
+    private void writeRow(int node) {
+        int matrixRow = rowOf[node];
+        firstSolution[matrixRow / boardSize] = (byte) (matrixRow % boardSize + 1);
+    }
+
+    private void selectRow(int first) {
+        int j = first;
+        do {
+            cover(column[j]);
+            j = right[j];
+        } while (j != first);
+    }
+
+    private void unselectRow(int first) {
+        int j = first;
+        do {
+            j = left[j];
+            uncover(column[j]);
+        } while (j != first);
+    }
+
+    private void cover(int c) {
+        covered[c] = true;
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+        covered[c] = false;
+    }
+}
@@ -0,0 +1,125 @@
+package com.marcos.appdiosudoku;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Testes do resolvedor Dancing Links: contagem de soluções (nenhuma, única e várias), a solução
+ * gravada, o cancelamento e a reutilização da matriz depois de cada caso.
+ */
+public class SudokuSolverTest {
+    private static final String UNIQUE =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String UNIQUE_SOLUTION =
+            "534678912672195348198342567859761423426853791713924856961537284287419635345286179";
+    // Só as três primeiras linhas do puzzle acima: muitas soluções
+    private static final String MULTIPLE =
+            "53..7....6..195....98....6.......................................................";
+    // Dois 5 na primeira linha
+    private static final String CONTRADICTORY =
+            "53..7...56..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+
+    private static Board board(String line) {
+        return BoardCodec.readLine(line.getBytes(StandardCharsets.US_ASCII), 0);
+    }
+
+    private static byte[] digits(String line) {
+        byte[] values = new byte[line.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (byte) (line.charAt(i) - '0');
+        }
+        return values;
+    }
+
+    @Test
+    public void solve_uniquePuzzleHasOneSolution() {
+        SudokuSolver solver = new SudokuSolver();
+        byte[] solution = new byte[BoardEngine.CELLS];
+        assertEquals(1, solver.solve(board(UNIQUE).getEngine(), 2, solution));
+        assertArrayEquals(digits(UNIQUE_SOLUTION), solution);
+    }
+
+    @Test
+    public void solve_returnsSolvedBoardKeepingClues() {
+        Board solved = new SudokuSolver().solve(board(UNIQUE));
+        assertNotNull(solved);
+        BoardEngine engine = solved.getEngine();
+        assertTrue(engine.isSolved());
+        assertTrue(engine.isFixed(0));
+        assertFalse(engine.isFixed(2));
+    }
+
+    @Test
+    public void countSolutions_stopsAtLimitForMultipleSolutions() {
+        SudokuSolver solver = new SudokuSolver();
+        Board puzzle = board(MULTIPLE);
+        assertEquals(1, solver.countSolutions(puzzle, 1));
+        assertEquals(2, solver.countSolutions(puzzle, 2));
+        assertEquals(10, solver.countSolutions(puzzle, 10));
+    }
+
+    @Test
+    public void solve_firstOfManySolutionsRespectsClues() {
+        SudokuSolver solver = new SudokuSolver();
+        BoardEngine puzzle = board(MULTIPLE).getEngine();
+        byte[] solution = new byte[BoardEngine.CELLS];
+        assertEquals(2, solver.solve(puzzle, 2, solution));
+        BoardEngine check = new BoardEngine();
+        for (int cell = 0; cell < BoardEngine.CELLS; cell++) {
+            if (puzzle.get(cell) != 0) {
+                assertEquals(puzzle.get(cell), solution[cell]);
+            }
+            check.set(cell, solution[cell]);
+        }
+        assertTrue(check.isSolvedFullScan());
+    }
+
+    @Test
+    public void solve_contradictoryGivensHaveNoSolution() {
+        SudokuSolver solver = new SudokuSolver();
+        assertEquals(0, solver.countSolutions(board(CONTRADICTORY), 2));
+        assertNull(solver.solve(board(CONTRADICTORY)));
+        // As pistas cobertas antes do conflito são desfeitas: o resolvedor continua utilizável
+        assertEquals(1, solver.countSolutions(board(UNIQUE), 2));
+    }
+
+    @Test
+    public void solve_stopsWhenCancelled() {
+        SudokuSolver solver = new SudokuSolver();
+        BoardEngine empty = new BoardEngine();
+        solver.setCancelSignal(new AtomicBoolean(true));
+        assertEquals(0, solver.solve(empty, 1, new byte[BoardEngine.CELLS]));
+        assertEquals(0, solver.getNodeCount());
+
+        solver.setCancelSignal(null);
+        assertEquals(1, solver.solve(empty, 1, new byte[BoardEngine.CELLS]));
+        assertEquals(1, solver.countSolutions(board(UNIQUE), 2));
+    }
+
+    @Test
+    public void solve_solvesOtherOrders() {
+        SudokuSolver solver = new SudokuSolver(2);
+        BoardEngine empty = new BoardEngine(2);
+        byte[] solution = new byte[empty.getCells()];
+        assertEquals(2, solver.solve(empty, 2, solution));
+        BoardEngine check = new BoardEngine(2);
+        for (int cell = 0; cell < solution.length; cell++) {
+            check.set(cell, solution[cell]);
+        }
+        assertTrue(check.isSolvedFullScan());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solve_rejectsBoardOfOtherOrder() {
+        new SudokuSolver().solve(new BoardEngine(2), 1, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solve_rejectsNonPositiveLimit() {
+        new SudokuSolver().solve(new BoardEngine(), 0, null);
+    }
+}
@@ -11,25 +11,29 @@ import androidx.test.runner.lifecycle.Stage;
  * Esta classe é responsável por exibir a interface do usuário e interagir com o ViewModel.
  */
 public class SudokuView extends Application {
+    public static final String ORDER_FLAG = "--order"; // Primeiro argumento opcional: --order <n> para um tabuleiro n² x n²
 
-    private SudokuViewModel viewModel; // Instância do ViewModel
+    private SudokuViewModel viewModel; // Instância do ViewModel, criada em start() com a ordem dos argumentos
     private TextField[][] cellTextFields; // Matriz de TextFields para as células do Sudoku
     private Label statusLabel; // Label para exibir o status do jogo
     private String initialArgs; // Argumentos iniciais para o tabuleiro
+    private boolean[] dirtyCells; // Células com estilo a atualizar no próximo pulso da UI
+    private boolean stylePulsePending; // Já existe um Platform.runLater agendado para os estilos
+    private PauseTransition[][] highlightResets; // Temporizador do destaque de erro de cada célula, criado sob demanda
+    private boolean notesMode; // Dígitos digitados viram anotações em vez de valores
 
     /**
      * Construtor da View.
-     * @param args Os argumentos de linha de comando para o tabuleiro inicial.
+     * @param args Os argumentos de linha de comando para o tabuleiro inicial, opcionalmente
+     *     precedidos de --order <n>.
      */
     public SudokuView(String args) {
         this.initialArgs = args;
-        this.viewModel = new SudokuViewModel();
     }
 
-    // Construtor padrão necessário para o Application.launch() se não houver argumentos
+    // Construtor padrão usado pelo Application.launch(); os argumentos vêm de getParameters()
     public SudokuView() {
         this.initialArgs = null; // Será definido ao iniciar o jogo
-        this.viewModel = new SudokuViewModel();
     }
 
     /**
@@ -40,6 +44,20 @@ public class SudokuView extends Application {
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Jogo de Sudoku - DIO");
 
+        // Separa a ordem do tabuleiro (--order <n>, 3 por padrão) dos argumentos do tabuleiro inicial
+        String args = initialArgs != null ? initialArgs : String.join(" ", getParameters().getRaw()).trim();
+        int order = BoardGeometry.CLASSIC_ORDER;
+        if (args.equals(ORDER_FLAG) || args.startsWith(ORDER_FLAG + " ")) {
+            String[] parts = args.split(" ", 3);
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Falta a ordem do tabuleiro depois de " + ORDER_FLAG);
+            }
+            order = Integer.parseInt(parts[1]);
+            args = parts.length > 2 ? parts[2] : "";
+        }
+        initialArgs = args;
+        viewModel = new SudokuViewModel(order);
+
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
 
@@ -54,7 +72,8 @@ public class SudokuView extends Application {
         // Configura as ligações do ViewModel com a View
         setupViewModelBindings();
 
-        Scene scene = new Scene(root, 450, 550); // Largura, Altura
+        int size = viewModel.getSize();
+        Scene scene = new Scene(root, Math.max(450, size * 45 + 45), size * 45 + 145); // Largura, Altura (450 x 550 no 9x9)
         primaryStage.setScene(scene);
         primaryStage.show();
 
@@ -74,45 +93,63 @@ public class SudokuView extends Application {
         grid.setPadding(new Insets(10));
         grid.setStyle("-fx-background-color: #333; -fx-border-color: #666; -fx-border-width: 2px; -fx-border-radius: 5px;");
 
-        cellTextFields = new TextField[Board.SIZE][Board.SIZE];
+        int size = viewModel.getSize();
+        int box = viewModel.getBoxSize();
+        cellTextFields = new TextField[size][size];
+        highlightResets = new PauseTransition[size][size];
 
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
                 TextField textField = new TextField();
                 textField.setPrefSize(40, 40); // Tamanho preferencial da célula
                 textField.setAlignment(Pos.CENTER);
                 textField.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #000; -fx-background-color: #FFF; -fx-border-color: #CCC; -fx-border-radius: 3px;");
 
-                // Adiciona um estilo diferente para os blocos 3x3
-                if ((row / 3 + col / 3) % 2 == 0) {
+                // Adiciona um estilo diferente para os blocos (3x3 no tabuleiro 9x9)
+                if ((row / box + col / box) % 2 == 0) {
                     textField.setStyle(textField.getStyle() + "-fx-background-color: #F0F0F0;"); // Cor mais clara para blocos alternados
                 }
 
                 final int r = row;
                 final int c = col;
 
-                // Listener para entrada de texto
+                // Modo de anotações numa célula vazia: a tecla digitada liga ou desliga a anotação e não
+                // chega ao texto. Tratado na tecla, não no texto, para que as atualizações feitas pelo
+                // ViewModel (dica, desfazer, novo jogo) nunca sejam confundidas com anotações.
+                textField.addEventFilter(KeyEvent.KEY_TYPED, event -> {
+                    String typed = event.getCharacter();
+                    if (!notesMode || !textField.getText().isEmpty() || typed.length() != 1) {
+                        return;
+                    }
+                    event.consume();
+                    int digit = Character.digit(typed.charAt(0), Character.MAX_RADIX); // Letras para os dígitos acima de 9
+                    if (digit > 0 && !viewModel.toggleNote(r, c, digit)) {
+                        highlightCell(textField, Color.RED);
+                        scheduleHighlightReset(r, c);
+                    }
+                });
+
+                // Listener para entrada de texto: aceita só o formato e envia o valor ao ViewModel
+                // quando a entrada está completa
                 textField.textProperty().addListener((obs, oldVal, newVal) -> {
-                    if (newVal.matches("[1-9]?")) { // Permite 0-9 para limpar, ou 1-9
-                        int value = newVal.isEmpty() ? 0 : Integer.parseInt(newVal);
-                        boolean isValid = viewModel.setCellValue(r, c, value);
-                        if (!isValid && value != 0) {
-                            // Se o valor não for válido, reverte o texto para o valor antigo
-                            // Ou mostra um feedback visual de erro
-                            textField.setText(oldVal);
-                            highlightCell(textField, Color.RED); // Destaca em vermelho
-                            // Automaticamente remove o destaque após um curto período
-                            new Thread(() -> {
-                                try {
-                                    Thread.sleep(500); // 0.5 segundos
-                                    Platform.runLater(() -> highlightCell(textField, Color.BLACK)); // Volta para o estilo original
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                }
-                            }).start();
-                        }
-                    } else {
+                    if (viewModel.isPushingToView()) {
+                        return; // Valor vindo do ViewModel, que já está no tabuleiro
+                    }
+                    // Permite vazio para limpar, ou 1 até o tamanho do tabuleiro (dois dígitos a partir do 16x16)
+                    if (!newVal.matches("[1-9][0-9]?|") || (!newVal.isEmpty() && Integer.parseInt(newVal) > size)) {
                         textField.setText(oldVal); // Reverte se não for número válido
+                        return;
+                    }
+                    // Se mais um dígito não formaria um valor válido (sempre, no 9x9), a entrada está completa;
+                    // senão ("1" no 16x16 pode virar "16") espera Enter ou a saída da célula
+                    if (newVal.isEmpty() || Integer.parseInt(newVal) * 10 > size) {
+                        commitCell(textField, r, c);
+                    }
+                });
+                textField.setOnAction(e -> commitCell(textField, r, c));
+                textField.focusedProperty().addListener((obs, wasFocused, focused) -> {
+                    if (!focused) {
+                        commitCell(textField, r, c);
                     }
                 });
 
@@ -123,9 +160,31 @@ public class SudokuView extends Application {
         return grid;
     }
 
+    /**
+     * Envia ao ViewModel o valor digitado na célula, se for diferente do que está no tabuleiro.
+     * Se o valor for rejeitado, volta ao valor do tabuleiro e destaca a célula em vermelho.
+     * @param textField O campo da célula.
+     * @param r A linha da célula.
+     * @param c A coluna da célula.
+     */
+    private void commitCell(TextField textField, int r, int c) {
+        String text = textField.getText();
+        if (text.equals(viewModel.getCellText(r, c))) {
+            return; // Nada pendente
+        }
+        int value = text.isEmpty() ? 0 : Integer.parseInt(text);
+        if (!viewModel.setCellValue(r, c, value)) {
+            textField.setText(viewModel.getCellText(r, c));
+            highlightCell(textField, Color.RED); // Destaca em vermelho
+            // Automaticamente remove o destaque após um curto período
+            scheduleHighlightReset(r, c);
+        }
+    }
+
     /**
      * Cria e configura a caixa de controle na parte inferior da View.
-     * Contém o botão "Novo Jogo" e o status do jogo.
+     * Contém os botões "Novo Jogo", "Desfazer", "Refazer" e "Dica", as opções de permitir erros e de
+     * anotações e o status do jogo.
      * @return O HBox configurado.
      */
     private HBox createControlBox() {
@@ -135,16 +194,37 @@ public class SudokuView extends Application {
 
         Button newGameButton = new Button("Novo Jogo");
         newGameButton.setStyle("-fx-font-size: 14px; -fx-background-color: #4CAF50; -fx-text-fill: white; -fx-background-radius: 5;");
+        ChoiceBox<Difficulty> difficultyChoice = new ChoiceBox<>(FXCollections.observableArrayList(Difficulty.values()));
+        difficultyChoice.setValue(Difficulty.MEDIUM);
         newGameButton.setOnAction(e -> {
-            // Reinicia o jogo com os argumentos iniciais ou um tabuleiro vazio
-            // (Para um novo jogo aleatório, seria necessário uma lógica de geração de tabuleiro)
-            viewModel.newGame(initialArgs);
+            // Inicia um jogo novo com um puzzle gerado na dificuldade escolhida
+            viewModel.newRandomGame(difficultyChoice.getValue());
         });
 
+        Button undoButton = new Button("Desfazer");
+        undoButton.setStyle("-fx-font-size: 14px; -fx-background-radius: 5;");
+        undoButton.setOnAction(e -> viewModel.undo());
+
+        Button redoButton = new Button("Refazer");
+        redoButton.setStyle("-fx-font-size: 14px; -fx-background-radius: 5;");
+        redoButton.setOnAction(e -> viewModel.redo());
+
+        CheckBox permissiveCheck = new CheckBox("Permitir erros");
+        permissiveCheck.setStyle("-fx-font-size: 14px;");
+        permissiveCheck.setOnAction(e -> viewModel.setPermissive(permissiveCheck.isSelected()));
+
+        CheckBox notesCheck = new CheckBox("Notas");
+        notesCheck.setStyle("-fx-font-size: 14px;");
+        notesCheck.setOnAction(e -> notesMode = notesCheck.isSelected());
+
+        Button hintButton = new Button("Dica");
+        hintButton.setStyle("-fx-font-size: 14px; -fx-background-radius: 5;");
+        hintButton.setOnAction(e -> viewModel.applyHint());
+
         statusLabel = new Label("Status: Novo Jogo");
         statusLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold; -fx-text-fill: #333;");
 
-        controlBox.getChildren().addAll(newGameButton, statusLabel);
+        controlBox.getChildren().addAll(newGameButton, difficultyChoice, undoButton, redoButton, hintButton, permissiveCheck, notesCheck, statusLabel);
         return controlBox;
     }
 
@@ -166,53 +246,115 @@ public class SudokuView extends Application {
         });
 
         // Liga os valores das células do tabuleiro
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
-                final int r = row;
-                final int c = col;
-                int index = r * Board.SIZE + c;
+        int size = viewModel.getSize();
+        dirtyCells = new boolean[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                final int index = row * size + col;
 
                 // Liga o texto do TextField à propriedade da célula no ViewModel
-                cellTextFields[r][c].textProperty().bindBidirectional(viewModel.getBoardCells().get(index));
-
-                // Configura o estilo para células fixas (não editáveis)
-                Platform.runLater(() -> { // Executa na thread da UI
-                    if (viewModel.isCellFixed(r, c)) {
-                        cellTextFields[r][c].setEditable(false);
-                        cellTextFields[r][c].setStyle(cellTextFields[r][c].getStyle() + "-fx-background-color: #E0E0E0; -fx-text-fill: #555;");
-                    } else {
-                        cellTextFields[r][c].setEditable(true);
-                        cellTextFields[r][c].setStyle(cellTextFields[r][c].getStyle() + "-fx-text-fill: #000;"); // Garante cor preta para editáveis
-                    }
-                });
+                cellTextFields[row][col].textProperty().bindBidirectional(viewModel.getBoardCells().get(index));
+
+                // Mudanças de valor ou de célula fixa só marcam a célula; o estilo é aplicado
+                // em um único pulso da UI para todas as células marcadas
+                viewModel.getBoardCells().get(index).addListener((obs, oldVal, newVal) -> markCellDirty(index));
+                viewModel.getFixedCells().get(index).addListener((obs, oldVal, newVal) -> markCellDirty(index));
+                viewModel.getConflictCells().get(index).addListener((obs, oldVal, newVal) -> markCellDirty(index));
+
+                // As anotações aparecem como texto de fundo, visível só com a célula vazia
+                TextField textField = cellTextFields[row][col];
+                viewModel.getNoteCells().get(index).addListener(
+                        (obs, oldVal, newVal) -> textField.setPromptText(notesText(newVal.longValue())));
+                markCellDirty(index); // Estilo inicial
+            }
+        }
+    }
+
+    /**
+     * Texto das anotações de uma célula, com os dígitos anotados em ordem crescente.
+     * @param mask A máscara de anotações (bit dígito - 1).
+     * @return Os dígitos separados por espaço, ou vazio.
+     */
+    private static String notesText(long mask) {
+        StringBuilder sb = new StringBuilder();
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            if (sb.length() > 0) {
+                sb.append(' ');
             }
+            sb.append(Long.numberOfTrailingZeros(bits) + 1);
         }
+        return sb.toString();
+    }
 
-        // Observa as propriedades de cada célula para atualizar o estilo de células fixas/editáveis
-        // Isso é importante após o carregamento de um novo tabuleiro via newGame
-        // Poderíamos ter um ObservableList de propriedades mais complexas (como SpaceProperty)
-        // para encapsular valor e fixed, mas para simplicidade, re-verificamos aqui.
-        viewModel.getBoardCells().forEach(stringProperty -> {
-            stringProperty.addListener((obs, oldVal, newVal) -> {
-                int index = viewModel.getBoardCells().indexOf(stringProperty);
-                int r = index / Board.SIZE;
-                int c = index % Board.SIZE;
-                Platform.runLater(() -> {
-                    if (viewModel.isCellFixed(r, c)) {
-                        cellTextFields[r][c].setEditable(false);
-                        cellTextFields[r][c].setStyle(cellTextFields[r][c].getStyle() + "-fx-background-color: #E0E0E0; -fx-text-fill: #555;");
-                    } else {
-                        cellTextFields[r][c].setEditable(true);
-                        // Garante que o fundo volte ao normal se o valor foi corrigido
-                        if ((r / 3 + c / 3) % 2 == 0) {
-                            cellTextFields[r][c].setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #000; -fx-background-color: #F0F0F0; -fx-border-color: #CCC; -fx-border-radius: 3px;");
-                        } else {
-                            cellTextFields[r][c].setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #000; -fx-background-color: #FFF; -fx-border-color: #CCC; -fx-border-radius: 3px;");
-                        }
-                    }
-                });
-            });
-        });
+    /**
+     * Marca a célula para ter o estilo atualizado e agenda o pulso da UI, se ainda não houver um pendente.
+     * Chamado na thread da UI.
+     * @param index O índice da célula.
+     */
+    private void markCellDirty(int index) {
+        dirtyCells[index] = true;
+        if (!stylePulsePending) {
+            stylePulsePending = true;
+            Platform.runLater(this::refreshDirtyCells);
+        }
+    }
+
+    /**
+     * Atualiza o estilo de todas as células marcadas desde o último pulso.
+     */
+    private void refreshDirtyCells() {
+        stylePulsePending = false;
+        int size = viewModel.getSize();
+        for (int index = 0; index < dirtyCells.length; index++) {
+            if (dirtyCells[index]) {
+                dirtyCells[index] = false;
+                applyCellStyle(index / size, index % size);
+            }
+        }
+    }
+
+    /**
+     * Aplica o estilo de célula fixa (não editável) ou editável, com o fundo alternado dos blocos.
+     * @param r A linha da célula.
+     * @param c A coluna da célula.
+     */
+    private void applyCellStyle(int r, int c) {
+        int box = viewModel.getBoxSize();
+        String background = (r / box + c / box) % 2 == 0 ? "#F0F0F0" : "#FFF";
+        TextField textField = cellTextFields[r][c];
+        if (viewModel.isCellFixed(r, c)) {
+            textField.setEditable(false);
+            textField.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-border-color: #CCC; -fx-border-radius: 3px;"
+                    + "-fx-background-color: #E0E0E0; -fx-text-fill: #555;");
+        } else if (viewModel.isCellConflicting(r, c)) {
+            // Modo permissivo: o valor fica no tabuleiro, destacado enquanto houver conflito
+            textField.setEditable(true);
+            textField.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #D32F2F; -fx-background-color: #FFE0E0;"
+                    + " -fx-border-color: #D32F2F; -fx-border-radius: 3px;");
+        } else {
+            textField.setEditable(true);
+            // Garante que o fundo volte ao normal se o valor foi corrigido
+            textField.setStyle("-fx-font-size: 18px; -fx-font-weight: bold; -fx-text-fill: #000; -fx-background-color: "
+                    + background + "; -fx-border-color: #CCC; -fx-border-radius: 3px;");
+        }
+    }
+
+    /**
+     * Agenda a remoção do destaque de erro da célula depois de 0,5 segundo.
+     * Usa um temporizador da própria linha do tempo do JavaFX por célula, sem criar threads:
+     * erros seguidos na mesma célula apenas reiniciam a contagem, e o fim já roda na thread da UI.
+     * @param r A linha da célula.
+     * @param c A coluna da célula.
+     */
+    private void scheduleHighlightReset(int r, int c) {
+        PauseTransition reset = highlightResets[r][c];
+        if (reset == null) {
+            reset = new PauseTransition(Duration.millis(500)); // 0.5 segundos
+            TextField textField = cellTextFields[r][c];
+            reset.setOnFinished(e -> highlightCell(textField, Color.BLACK)); // Volta para o estilo original
+            highlightResets[r][c] = reset;
+        }
+        reset.playFromStart();
     }
 
     /**
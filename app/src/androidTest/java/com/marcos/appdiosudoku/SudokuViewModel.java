@@ -1,44 +1,100 @@
 package com.marcos.appdiosudoku;
 
-import br.com.dio.model.Board;
-import br.com.dio.model.GameStatusEnum;
-import br.com.dio.model.Space;
-import br.com.dio.util.BoardTemplate;
-
+import javafx.application.Platform;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.StringProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * ViewModel para o jogo de Sudoku.
  * Gerencia a lógica do jogo e expõe dados observáveis para a View.
  */
 public class SudokuViewModel {
+    // Texto de cada valor possível, para comparar e atualizar as células sem criar Strings
+    private static final String[] CELL_TEXT = new String[BoardGeometry.MAX_ORDER * BoardGeometry.MAX_ORDER + 1];
+
+    static {
+        CELL_TEXT[0] = "";
+        for (int value = 1; value < CELL_TEXT.length; value++) {
+            CELL_TEXT[value] = String.valueOf(value);
+        }
+    }
+
+    private final int order; // Ordem do tabuleiro (3 para o 9x9)
     private Board board; // O modelo do tabuleiro de Sudoku
+    private HintEngine hints; // Candidatos do tabuleiro atual, mantidos a cada movimento
+    private PuzzlePool puzzlePool; // Puzzles pré-gerados, criado no primeiro jogo aleatório
+    private final MoveJournal journal = new MoveJournal(); // Histórico para desfazer/refazer
+    private SaveGame save; // Jogo salvo que recebe cada movimento, ou null
+    private boolean permissive; // Mantém valores em conflito no tabuleiro, destacados na View
+    private int[] shownConflicts = new int[0]; // Células marcadas como em conflito na View
+    private int gameRequest; // Muda a cada jogo iniciado; descarta puzzles gerados em segundo plano que chegam tarde
+    private boolean pushingToView; // Verdadeiro enquanto o ViewModel grava o texto das células na View
 
     // Propriedades observáveis para a View
     private ObjectProperty<GameStatusEnum> gameStatus = new SimpleObjectProperty<>(GameStatusEnum.NEW_GAME);
     private ObservableList<StringProperty> boardCells = FXCollections.observableArrayList();
+    private ObservableList<BooleanProperty> fixedCells = FXCollections.observableArrayList();
+    private ObservableList<BooleanProperty> conflictCells = FXCollections.observableArrayList();
+    private ObservableList<LongProperty> noteCells = FXCollections.observableArrayList();
 
     /**
      * Construtor do ViewModel.
      * Inicializa o tabuleiro e as propriedades observáveis.
      */
     public SudokuViewModel() {
+        this(BoardGeometry.CLASSIC_ORDER);
+    }
+
+    /**
+     * Construtor do ViewModel para tabuleiros de ordem n (n² x n²).
+     * @param order A ordem do tabuleiro (2 a 6).
+     */
+    public SudokuViewModel(int order) {
+        this.order = order;
         // Inicializa o tabuleiro com um estado padrão ou vazio
-        this.board = new Board();
+        this.board = new Board(order);
+        this.hints = new HintEngine(board);
         initializeBoardCells();
     }
 
+    /**
+     * Retorna o tamanho do tabuleiro.
+     * @return A quantidade de linhas (e de colunas), por exemplo 9.
+     */
+    public int getSize() {
+        return board.getSize();
+    }
+
+    /**
+     * Retorna o tamanho do bloco.
+     * @return A quantidade de linhas (e de colunas) de cada bloco, por exemplo 3.
+     */
+    public int getBoxSize() {
+        return board.getBoxSize();
+    }
+
     /**
      * Inicializa as propriedades StringProperty para cada célula do tabuleiro.
      */
     private void initializeBoardCells() {
-        for (int i = 0; i < Board.SIZE * Board.SIZE; i++) {
+        for (int i = 0; i < board.getSize() * board.getSize(); i++) {
             boardCells.add(new SimpleStringProperty(""));
+            fixedCells.add(new SimpleBooleanProperty(false));
+            conflictCells.add(new SimpleBooleanProperty(false));
+            noteCells.add(new SimpleLongProperty(0));
         }
     }
 
@@ -48,21 +104,150 @@ public class SudokuViewModel {
      */
     public void newGame(String args) {
         try {
-            this.board = BoardTemplate.getStartingBoard(args);
-            updateViewBoardCells();
-            gameStatus.set(GameStatusEnum.PLAYING);
-            System.out.println("Novo jogo iniciado.");
+            startGame(BoardTemplate.getStartingBoard(args, order));
         } catch (IllegalArgumentException e) {
             System.err.println("Erro ao carregar o tabuleiro: " + e.getMessage());
             gameStatus.set(GameStatusEnum.NEW_GAME); // Mantém o status como novo jogo em caso de erro
         }
     }
 
+    /**
+     * Inicia um novo jogo com um puzzle gerado aleatoriamente, de solução única.
+     * Usa o estoque de puzzles pré-gerados; se não houver um pronto da dificuldade pedida, gera um
+     * em segundo plano e inicia o jogo na thread da UI quando ficar pronto, a menos que outro jogo
+     * tenha sido iniciado nesse meio tempo. Se a dificuldade não for alcançável no tamanho do
+     * tabuleiro, o jogo usa a mais próxima.
+     * @param difficulty A dificuldade desejada.
+     */
+    public void newRandomGame(Difficulty difficulty) {
+        if (puzzlePool == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            puzzlePool = new PuzzlePool(order, 8, threads);
+        }
+        Board puzzle = puzzlePool.poll(difficulty);
+        if (puzzle != null) {
+            startGame(puzzle);
+            return;
+        }
+        int request = ++gameRequest;
+        CompletableFuture.supplyAsync(() -> new PuzzleGenerator(order, new SplittableRandom()).generate(difficulty))
+                .whenComplete((generated, error) -> {
+                    if (error != null) {
+                        System.err.println("Erro ao gerar o puzzle: " + error.getMessage());
+                        return;
+                    }
+                    Platform.runLater(() -> {
+                        if (request == gameRequest) {
+                            startGame(generated);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Salva o jogo atual em arquivo. A partir daí cada movimento é acrescentado ao log do jogo salvo,
+     * sem regravar o tabuleiro.
+     * @param path O arquivo do jogo salvo.
+     * @return Verdadeiro se o jogo foi salvo.
+     */
+    public boolean saveGame(Path path) {
+        closeSaveGame();
+        try {
+            save = SaveGame.create(path, board);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar o jogo: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Carrega um jogo salvo e continua gravando os movimentos nele.
+     * Os movimentos feitos desde a última compactação do log podem ser desfeitos.
+     * @param path O arquivo do jogo salvo.
+     * @return Verdadeiro se o jogo foi carregado.
+     */
+    public boolean loadGame(Path path) {
+        SaveGame loaded;
+        try {
+            loaded = SaveGame.open(path);
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar o jogo: " + e.getMessage());
+            return false;
+        }
+        Board loadedBoard = loaded.getBoard();
+        if (loadedBoard.getBoxSize() != order) {
+            System.err.println("Erro ao carregar o jogo: tabuleiro " + loadedBoard.getSize() + "x" + loadedBoard.getSize());
+            closeQuietly(loaded);
+            return false;
+        }
+        startGame(loadedBoard);
+        loaded.restoreJournal(journal);
+        save = loaded;
+        if (board.checkWin()) {
+            gameStatus.set(GameStatusEnum.COMPLETE);
+        }
+        return true;
+    }
+
+    /**
+     * Para de gravar os movimentos no jogo salvo atual, se houver.
+     */
+    private void closeSaveGame() {
+        if (save != null) {
+            closeQuietly(save);
+            save = null;
+        }
+    }
+
+    private static void closeQuietly(SaveGame saveGame) {
+        try {
+            saveGame.close();
+        } catch (IOException e) {
+            System.err.println("Erro ao fechar o jogo salvo: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Acrescenta um movimento ao jogo salvo, se houver.
+     */
+    private void logMove(int cell, int oldValue, int newValue) {
+        if (save == null || oldValue == newValue) {
+            return;
+        }
+        try {
+            save.append(cell, oldValue, newValue);
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar o movimento; o jogo deixa de ser salvo: " + e.getMessage());
+            closeSaveGame();
+        }
+    }
+
+    /**
+     * Troca o tabuleiro atual e reinicia o histórico, os candidatos e a View.
+     */
+    private void startGame(Board puzzle) {
+        gameRequest++;
+        closeSaveGame();
+        this.board = puzzle;
+        board.setPermissive(permissive);
+        this.hints = new HintEngine(board);
+        journal.clear();
+        updateViewBoardCells();
+        gameStatus.set(GameStatusEnum.PLAYING);
+        System.out.println("Novo jogo iniciado.");
+    }
+
     /**
      * Limpa o tabuleiro atual e o prepara para um novo jogo.
      */
     public void resetGame() {
-        this.board = new Board(); // Cria um novo tabuleiro vazio
+        gameRequest++;
+        closeSaveGame();
+        this.board = new Board(order); // Cria um novo tabuleiro vazio
+        board.setPermissive(permissive);
+        this.hints = new HintEngine(board);
+        journal.clear();
         updateViewBoardCells();
         gameStatus.set(GameStatusEnum.NEW_GAME);
         System.out.println("Jogo resetado.");
@@ -70,9 +255,9 @@ public class SudokuViewModel {
 
     /**
      * Tenta definir um valor em uma célula específica do tabuleiro.
-     * @param row A linha da célula (0-8).
-     * @param col A coluna da célula (0-8).
-     * @param value O valor a ser definido (0-9).
+     * @param row A linha da célula (0 até getSize() - 1).
+     * @param col A coluna da célula (0 até getSize() - 1).
+     * @param value O valor a ser definido (0 até getSize()).
      * @return Verdadeiro se o valor foi definido e é válido, falso caso contrário.
      */
     public boolean setCellValue(int row, int col, int value) {
@@ -81,37 +266,237 @@ public class SudokuViewModel {
         }
 
         // Tenta definir o valor no modelo do tabuleiro
-        boolean isValid = board.setValue(row, col, value);
+        int oldValue = board.getSpace(row, col).getValue();
+        boolean isValid = hints.setValue(row, col, value);
 
         if (isValid) {
-            // Atualiza a propriedade observável da célula na View
-            int index = row * Board.SIZE + col;
-            boardCells.get(index).set(value == 0 ? "" : String.valueOf(value));
-
-            // Verifica se o jogo foi concluído após a mudança
-            if (board.checkWin()) {
-                gameStatus.set(GameStatusEnum.COMPLETE);
-                System.out.println("Parabéns! Você resolveu o Sudoku!");
-            } else {
-                gameStatus.set(GameStatusEnum.PLAYING); // Garante que o status volte a ser PLAYING se não estiver completo
+            if (oldValue != value) {
+                journal.record(row * board.getSize() + col, oldValue, value);
+                logMove(row * board.getSize() + col, oldValue, value);
             }
+            onCellChanged(row, col, value);
         }
         return isValid;
     }
 
+    /**
+     * Desfaz o último movimento do jogador.
+     * @return Verdadeiro se havia movimento para desfazer.
+     */
+    public boolean undo() {
+        if (!journal.canUndo()) {
+            return false;
+        }
+        int move = journal.undo();
+        applyJournalMove(MoveJournal.cellOf(move), MoveJournal.oldValueOf(move));
+        return true;
+    }
+
+    /**
+     * Refaz o último movimento desfeito.
+     * @return Verdadeiro se havia movimento para refazer.
+     */
+    public boolean redo() {
+        if (!journal.canRedo()) {
+            return false;
+        }
+        int move = journal.redo();
+        applyJournalMove(MoveJournal.cellOf(move), MoveJournal.newValueOf(move));
+        return true;
+    }
+
+    /**
+     * Retorna o histórico de movimentos da partida atual.
+     * Pode ser reaplicado com MoveJournal.replay() sobre o mesmo puzzle para restaurar a sessão.
+     * @return O histórico de movimentos.
+     */
+    public MoveJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Aplica um valor vindo do histórico no tabuleiro, sem validar (mas atualizando as anotações): ele restaura um estado que já
+     * existiu, e pode repetir o dígito de uma vizinha se foi gravado no modo permissivo que depois
+     * foi desativado. Validar aqui rejeitaria o movimento com o cursor do histórico já deslocado.
+     */
+    private void applyJournalMove(int cell, int value) {
+        int oldValue = board.getEngine().get(cell);
+        logMove(cell, oldValue, value);
+        board.restoreValue(cell, value);
+        hints.cellChanged(cell, oldValue, value);
+        onCellChanged(cell / board.getSize(), cell % board.getSize(), value);
+    }
+
+    /**
+     * Procura a próxima jogada que pode ser deduzida logicamente no tabuleiro atual.
+     * @return A dica, ou null se não houver dedução possível com as técnicas suportadas.
+     */
+    public Hint getHint() {
+        return hints.nextHint();
+    }
+
+    /**
+     * Aplica a próxima dica no tabuleiro, como se o jogador tivesse feito a jogada.
+     * @return Verdadeiro se havia uma dica e ela foi aplicada.
+     */
+    public boolean applyHint() {
+        Hint hint = hints.nextHint();
+        if (hint == null) {
+            return false;
+        }
+        return setCellValue(hint.getRow(), hint.getCol(), hint.getDigit());
+    }
+
+    /**
+     * Atualiza a célula na View e o status do jogo após uma mudança no tabuleiro.
+     */
+    private void onCellChanged(int row, int col, int value) {
+        // Atualiza a propriedade observável da célula na View
+        int index = row * board.getSize() + col;
+        showCellText(index, CELL_TEXT[value]);
+        updateConflictCells();
+        if (value != 0 && board.peekNotes() != null) {
+            // O valor apagou as anotações da célula e o dígito das vizinhas
+            updateNoteCell(index);
+            for (int peer : board.getEngine().getGeometry().peers[index]) {
+                updateNoteCell(peer);
+            }
+        }
+
+        // Verifica se o jogo foi concluído após a mudança
+        if (board.checkWin()) {
+            gameStatus.set(GameStatusEnum.COMPLETE);
+            System.out.println("Parabéns! Você resolveu o Sudoku!");
+        } else {
+            gameStatus.set(GameStatusEnum.PLAYING); // Garante que o status volte a ser PLAYING se não estiver completo
+        }
+    }
+
     /**
      * Atualiza as propriedades observáveis das células da View com base no estado atual do modelo do tabuleiro.
+     * Compara cada célula com o que a View já mostra e só altera as que mudaram (valor ou célula fixa),
+     * então carregar um jogo dispara listeners apenas nas células diferentes.
      */
     private void updateViewBoardCells() {
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
-                Space space = board.getSpace(row, col);
-                int index = row * Board.SIZE + col;
-                boardCells.get(index).set(space.getValue() == 0 ? "" : String.valueOf(space.getValue()));
+        BoardEngine engine = board.getEngine();
+        for (int index = 0; index < boardCells.size(); index++) {
+            // Atualiza primeiro o estado fixo, que a View consulta ao restaurar o estilo
+            BooleanProperty fixed = fixedCells.get(index);
+            if (fixed.get() != engine.isFixed(index)) {
+                fixed.set(engine.isFixed(index));
+            }
+            String text = CELL_TEXT[engine.get(index)];
+            if (!text.equals(boardCells.get(index).get())) {
+                showCellText(index, text);
             }
+            updateNoteCell(index);
+        }
+        updateConflictCells();
+    }
+
+    /**
+     * Grava o texto de uma célula na propriedade ligada à View. O valor já está no tabuleiro, então
+     * a View deve ignorar a mudança de texto (ver isPushingToView()) em vez de tratá-la como jogada.
+     */
+    private void showCellText(int cell, String text) {
+        pushingToView = true;
+        try {
+            boardCells.get(cell).set(text);
+        } finally {
+            pushingToView = false;
         }
     }
 
+    /**
+     * Indica se a mudança de texto em andamento vem do próprio ViewModel (dica, desfazer, refazer,
+     * novo jogo ou jogo carregado), e não do jogador.
+     * @return Verdadeiro enquanto o ViewModel atualiza o texto de uma célula.
+     */
+    public boolean isPushingToView() {
+        return pushingToView;
+    }
+
+    /**
+     * Copia a máscara de anotações de uma célula do tabuleiro para a sua propriedade, se mudou.
+     */
+    private void updateNoteCell(int cell) {
+        PencilMarks notes = board.peekNotes();
+        long mask = notes == null ? 0 : notes.getMask(cell);
+        LongProperty property = noteCells.get(cell);
+        if (property.get() != mask) {
+            property.set(mask);
+        }
+    }
+
+    /**
+     * Anota ou apaga um candidato numa célula vazia. Colocar um valor numa célula apaga o dígito
+     * das anotações das vizinhas automaticamente.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @param digit O dígito (1 até getSize()).
+     * @return Verdadeiro se a anotação mudou; falso se a célula é fixa, tem valor ou o dígito é inválido.
+     */
+    public boolean toggleNote(int row, int col, int digit) {
+        int size = board.getSize();
+        if (row < 0 || row >= size || col < 0 || col >= size || digit < 1 || digit > size) {
+            return false;
+        }
+        int cell = row * size + col;
+        BoardEngine engine = board.getEngine();
+        if (engine.isFixed(cell) || engine.get(cell) != 0) {
+            return false;
+        }
+        board.getNotes().toggle(cell, digit);
+        updateNoteCell(cell);
+        return true;
+    }
+
+    /**
+     * Apaga as anotações de uma célula.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     */
+    public void clearNotes(int row, int col) {
+        PencilMarks notes = board.peekNotes();
+        if (notes != null) {
+            int cell = row * board.getSize() + col;
+            notes.clear(cell);
+            updateNoteCell(cell);
+        }
+    }
+
+    /**
+     * Atualiza as células marcadas como em conflito, em O(conflitos): desmarca as que deixaram de
+     * estar em conflito e marca as atuais, consultando o ConflictTracker do tabuleiro.
+     */
+    private void updateConflictCells() {
+        ConflictTracker tracker = board.getEngine().getConflictTracker();
+        for (int cell : shownConflicts) {
+            if (tracker == null || !tracker.isConflicting(cell)) {
+                conflictCells.get(cell).set(false);
+            }
+        }
+        shownConflicts = tracker == null ? new int[0] : tracker.getConflictingCells();
+        for (int cell : shownConflicts) {
+            conflictCells.get(cell).set(true);
+        }
+    }
+
+    /**
+     * Ativa ou desativa o modo permissivo: valores que conflitam com uma vizinha ficam no tabuleiro
+     * e são destacados (ver getConflictCells()) em vez de rejeitados.
+     * @param permissive Verdadeiro para aceitar valores em conflito.
+     */
+    public void setPermissive(boolean permissive) {
+        this.permissive = permissive;
+        board.setPermissive(permissive);
+        updateConflictCells();
+    }
+
+    public boolean isPermissive() {
+        return permissive;
+    }
+
     /**
      * Retorna a propriedade observável do status do jogo.
      * @return ObjectProperty<GameStatusEnum> do status do jogo.
@@ -129,6 +514,53 @@ public class SudokuViewModel {
         return boardCells;
     }
 
+    /**
+     * Retorna a lista observável com o estado fixo de cada célula, na mesma ordem de getBoardCells().
+     * @return ObservableList de BooleanProperty.
+     */
+    public ObservableList<BooleanProperty> getFixedCells() {
+        return fixedCells;
+    }
+
+    /**
+     * Retorna a lista observável com o estado de conflito de cada célula, na mesma ordem de getBoardCells().
+     * Só há conflitos no modo permissivo.
+     * @return ObservableList de BooleanProperty.
+     */
+    public ObservableList<BooleanProperty> getConflictCells() {
+        return conflictCells;
+    }
+
+    /**
+     * Retorna a lista observável com as anotações de cada célula, na mesma ordem de getBoardCells().
+     * Cada valor é uma máscara em que o bit (dígito - 1) indica um candidato anotado.
+     * @return ObservableList de LongProperty.
+     */
+    public ObservableList<LongProperty> getNoteCells() {
+        return noteCells;
+    }
+
+    /**
+     * Verifica se uma célula repete o dígito de alguma vizinha.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @return Verdadeiro se a célula está em conflito.
+     */
+    public boolean isCellConflicting(int row, int col) {
+        return conflictCells.get(row * board.getSize() + col).get();
+    }
+
+    /**
+     * Retorna o texto do valor gravado no tabuleiro para uma célula, que pode diferir do texto da
+     * View enquanto o jogador ainda digita um valor de dois dígitos.
+     * @param row A linha da célula.
+     * @param col A coluna da célula.
+     * @return O valor como texto, ou vazio se a célula estiver vazia.
+     */
+    public String getCellText(int row, int col) {
+        return CELL_TEXT[board.getSpace(row, col).getValue()];
+    }
+
     /**
      * Verifica se uma célula específica é fixa (não pode ser alterada pelo jogador).
      * @param row A linha da célula.
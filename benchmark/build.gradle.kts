@@ -0,0 +1,51 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// O modelo do Sudoku fica no módulo app; aqui entram só as classes que rodam numa JVM comum,
+// sem JavaFX nem Android, para medir o desempenho sem precisar de um dispositivo.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/androidTest/java")
+            include("com/marcos/appdiosudoku/**")
+            exclude(
+                "com/marcos/appdiosudoku/ExampleInstrumentedTest.java",
+                "com/marcos/appdiosudoku/Main.java",
+                "com/marcos/appdiosudoku/SudokuView.java",
+                "com/marcos/appdiosudoku/SudokuViewModel.java",
+                "com/marcos/appdiosudoku/**/*Test.java" // Testes JUnit não entram no código principal
+            )
+        }
+    }
+    // Os testes do modelo ficam ao lado dele; aqui rodam na JVM com ./gradlew :benchmark:test
+    test {
+        java {
+            srcDir("../app/src/androidTest/java")
+            include("com/marcos/appdiosudoku/**/*Test.java")
+            exclude("com/marcos/appdiosudoku/ExampleInstrumentedTest.java")
+        }
+    }
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
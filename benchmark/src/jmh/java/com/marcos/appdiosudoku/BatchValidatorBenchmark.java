@@ -0,0 +1,71 @@
+package com.marcos.appdiosudoku;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Validação de 4096 tabuleiros resolvidos ou com um erro: BatchValidator sobre um BoardBatch
+ * contra a varredura completa de cada Board, que é o que um lote vindo de arquivo precisa fazer
+ * (os contadores incrementais de checkWin() só existem em tabuleiros montados jogada a jogada).
+ * Executar com: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BatchValidatorBenchmark {
+    private static final int BOARDS = 4096;
+
+    private BoardBatch batch;
+    private Board[] boards;
+    private final BatchValidator validator = new BatchValidator();
+    private final byte[] flags = new byte[BOARDS];
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        PuzzleGenerator generator = new PuzzleGenerator(BoardGeometry.CLASSIC_ORDER, random);
+        SudokuSolver solver = new SudokuSolver();
+        batch = new BoardBatch(BoardGeometry.CLASSIC_ORDER, BOARDS);
+        boards = new Board[BOARDS];
+        Board solved = solver.solve(generator.generate());
+        for (int i = 0; i < BOARDS; i++) {
+            if (i % 64 == 0) {
+                solved = solver.solve(generator.generate());
+            }
+            Board board = solved.copyBoard();
+            if (random.nextBoolean()) {
+                // Metade dos tabuleiros com uma célula trocada (conflito) ou apagada
+                board.getEngine().set(random.nextInt(BoardEngine.CELLS), random.nextInt(Board.SIZE + 1));
+            }
+            boards[i] = board;
+            batch.add(board.getEngine());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int batchValidate() {
+        return validator.validate(batch, flags);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public int checkWinFullScan() {
+        int complete = 0;
+        for (Board board : boards) {
+            if (board.checkWinFullScan()) {
+                complete++;
+            }
+        }
+        return complete;
+    }
+}
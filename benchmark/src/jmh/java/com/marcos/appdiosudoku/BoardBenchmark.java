@@ -0,0 +1,140 @@
+package com.marcos.appdiosudoku;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks JMH das operações básicas do modelo do Sudoku.
+ * Executar com: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardBenchmark {
+
+    // Puzzles representativos: um fácil, um difícil e um que força muito retrocesso em buscas ingênuas
+    private static final String EASY =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String HARD =
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+    private static final String PATHOLOGICAL =
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9";
+
+    @Param({"easy", "hard", "pathological"})
+    public String difficulty;
+
+    private Board puzzle; // Tabuleiro com as pistas, alterado pelos benchmarks de setValue
+    private Board solved; // Tabuleiro resolvido, para checkWin no caso completo
+    private Board loadTarget; // Tabuleiro reaproveitado por loadBoard
+    private String[][] rawBoard; // Entrada de loadBoard
+    private String template; // Entrada de BoardTemplate.getStartingBoard
+    private HintEngine hints; // Motor de dicas sobre uma cópia do puzzle
+
+    // Movimentos usados em setValue: uma célula vazia, um dígito válido e um que conflita
+    private int moveRow;
+    private int moveCol;
+    private int validDigit;
+    private int invalidDigit;
+
+    @Setup
+    public void setUp() {
+        String line;
+        switch (difficulty) {
+            case "easy":
+                line = EASY;
+                break;
+            case "hard":
+                line = HARD;
+                break;
+            default:
+                line = PATHOLOGICAL;
+                break;
+        }
+        puzzle = BoardCodec.readLine(line.getBytes(StandardCharsets.US_ASCII), 0);
+        solved = new SudokuSolver().solve(puzzle);
+        loadTarget = new Board();
+
+        rawBoard = new String[Board.SIZE][Board.SIZE];
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < Board.SIZE; r++) {
+            for (int c = 0; c < Board.SIZE; c++) {
+                Space space = puzzle.getSpace(r, c);
+                rawBoard[r][c] = String.valueOf(space.getValue());
+                sb.append(r).append(',').append(c).append(';')
+                        .append(space.getValue()).append(',').append(space.isFixed()).append(' ');
+            }
+        }
+        template = sb.toString().trim();
+        hints = new HintEngine(puzzle.copyBoard());
+
+        BoardEngine engine = puzzle.getEngine();
+        for (int cell = 0; cell < BoardEngine.CELLS; cell++) {
+            if (engine.get(cell) == 0) {
+                moveRow = cell / Board.SIZE;
+                moveCol = cell % Board.SIZE;
+                validDigit = solved.getSpace(moveRow, moveCol).getValue();
+                invalidDigit = Long.numberOfTrailingZeros(engine.usedMask(cell));
+                break;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean setValueValid() {
+        // Coloca e limpa o valor, para que toda invocação parta do mesmo estado
+        boolean placed = puzzle.setValue(moveRow, moveCol, validDigit);
+        puzzle.setValue(moveRow, moveCol, 0);
+        return placed;
+    }
+
+    @Benchmark
+    public boolean setValueInvalid() {
+        return puzzle.setValue(moveRow, moveCol, invalidDigit);
+    }
+
+    @Benchmark
+    public boolean checkWinPuzzle() {
+        return puzzle.checkWin();
+    }
+
+    @Benchmark
+    public boolean checkWinSolved() {
+        return solved.checkWin();
+    }
+
+    @Benchmark
+    public Board copyBoard() {
+        return puzzle.copyBoard();
+    }
+
+    @Benchmark
+    public BoardSnapshot snapshot() {
+        return puzzle.snapshot();
+    }
+
+    @Benchmark
+    public Board loadBoard() {
+        loadTarget.loadBoard(rawBoard);
+        return loadTarget;
+    }
+
+    @Benchmark
+    public Hint nextHint() {
+        // Os candidatos ficam vivos entre as chamadas, como numa partida interativa
+        return hints.nextHint();
+    }
+
+    @Benchmark
+    public Board getStartingBoard() {
+        return BoardTemplate.getStartingBoard(template);
+    }
+}
@@ -0,0 +1,118 @@
+package com.marcos.appdiosudoku;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Teste de carga do GameSessionManager: muitas sessões abertas ao mesmo tempo e várias threads
+ * jogando em sessões aleatórias (movimento seguido de desfazer, e pedidos de dica).
+ * Também mede o heap: depois de criar as sessões, o heap usado por sessão (cerca de 210 bytes
+ * no 9x9, já que o tabuleiro é compartilhado até a primeira escrita) precisa ficar dentro de
+ * SESSION_BUDGET, senão o trial falha. No fim, informa o crescimento do heap durante as medições e
+ * falha se passar de GROWTH_BUDGET por sessão. O crescimento vem do HintEngine que hint() cria em
+ * cada sessão consultada (cerca de 800 bytes) e da cópia própria do tabuleiro feita na primeira
+ * jogada (copy-on-write); com todas as sessões tocadas, fica perto de 1,6 KB por sessão.
+ * Para a alocação por operação, execute com o profiler de GC do JMH (-prof gc).
+ * Executar com: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(8)
+public class GameSessionBenchmark {
+    private static final int PUZZLES = 32; // Puzzles distintos, compartilhados pelas sessões (copy-on-write)
+    private static final long SESSION_BUDGET = 512; // Bytes de heap por sessão ociosa
+    private static final long GROWTH_BUDGET = 2048; // Crescimento máximo por sessão nas medições (HintEngine e cópia do tabuleiro)
+
+    @Param({"100000"})
+    public int sessions;
+
+    private GameSessionManager manager;
+    private long firstId;
+    private long heapAfterSetup;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PuzzleGenerator generator = new PuzzleGenerator(BoardGeometry.CLASSIC_ORDER, new SplittableRandom(42));
+        Board[] puzzles = new Board[PUZZLES];
+        for (int i = 0; i < PUZZLES; i++) {
+            puzzles[i] = generator.generate();
+        }
+        long heapBefore = usedHeap();
+        manager = new GameSessionManager();
+        firstId = manager.createSession(puzzles[0]);
+        for (int i = 1; i < sessions; i++) {
+            manager.createSession(puzzles[i % PUZZLES]);
+        }
+        heapAfterSetup = usedHeap();
+        long perSession = (heapAfterSetup - heapBefore) / sessions;
+        System.out.printf("%nHeap usado pelas %d sessões: %.1f MB (%d bytes por sessão)%n",
+                sessions, (heapAfterSetup - heapBefore) / 1e6, perSession);
+        if (perSession > SESSION_BUDGET) {
+            throw new IllegalStateException("Sessão ociosa usa " + perSession + " bytes de heap; o limite é " + SESSION_BUDGET);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long growth = usedHeap() - heapAfterSetup;
+        long perSession = growth / sessions;
+        System.out.printf("%nCrescimento do heap durante as medições: %.1f MB (%d bytes por sessão)%n",
+                growth / 1e6, perSession);
+        if (perSession > GROWTH_BUDGET) {
+            throw new IllegalStateException("As sessões cresceram " + perSession + " bytes cada; o limite é " + GROWTH_BUDGET);
+        }
+    }
+
+    /**
+     * Heap usado depois de coletar o lixo, em bytes. Chama System.gc() algumas vezes para o valor se estabilizar.
+     */
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private long randomSession(ThreadLocalRandom random) {
+        return firstId + random.nextInt(sessions);
+    }
+
+    @Benchmark
+    public boolean moveAndUndo() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = randomSession(random);
+        int row = random.nextInt(Board.SIZE);
+        int col = random.nextInt(Board.SIZE);
+        if (manager.setCellValue(id, row, col, 1 + random.nextInt(Board.SIZE))) {
+            return manager.undo(id);
+        }
+        return false;
+    }
+
+    @Benchmark
+    public GameStatusEnum status() {
+        return manager.getStatus(randomSession(ThreadLocalRandom.current()));
+    }
+
+    @Benchmark
+    public Hint hint() {
+        return manager.getHint(randomSession(ThreadLocalRandom.current()));
+    }
+}
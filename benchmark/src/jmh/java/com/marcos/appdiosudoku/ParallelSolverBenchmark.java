@@ -0,0 +1,56 @@
+package com.marcos.appdiosudoku;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Escalabilidade do ParallelSolver: verificação de unicidade (até 2 soluções) de um puzzle 16x16
+ * gerado, com 1 a 16 threads, comparada ao SudokuSolver sequencial.
+ * Executar com: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelSolverBenchmark {
+    private static final int ORDER = 4; // 16x16
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    private Board puzzle;
+    private ParallelSolver parallel;
+    private SudokuSolver sequential;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        puzzle = new PuzzleGenerator(ORDER, new SplittableRandom(5)).generate();
+        parallel = new ParallelSolver(ORDER, parallelism);
+        sequential = new SudokuSolver(ORDER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallel.shutdown();
+    }
+
+    @Benchmark
+    public int parallelUniqueness() {
+        return parallel.countSolutions(puzzle, 2);
+    }
+
+    @Benchmark
+    public int sequentialUniqueness() {
+        return sequential.countSolutions(puzzle, 2);
+    }
+}
@@ -0,0 +1,83 @@
+package com.marcos.appdiosudoku;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compara resolver e classificar de novo com um acerto no SolutionCache, nos mesmos puzzles do
+ * BoardBenchmark. O acerto custa montar a chave (81 células e um hash) e copiar a solução, então
+ * deve ficar abaixo da resolução mesmo no puzzle fácil.
+ * Executar com: ./gradlew :benchmark:jmh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolutionCacheBenchmark {
+
+    private static final String EASY =
+            "53..7....6..195....98....6.8...6...34..8.3..17...2...6.6....28....419..5....8..79";
+    private static final String HARD =
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+    private static final String PATHOLOGICAL =
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9";
+
+    @Param({"easy", "hard", "pathological"})
+    public String difficulty;
+
+    private Board puzzle;
+    private SudokuSolver solver;
+    private PuzzleGrader grader;
+    private byte[] solution;
+    private SolutionCache cache;
+
+    @Setup
+    public void setUp() {
+        String line;
+        switch (difficulty) {
+            case "easy":
+                line = EASY;
+                break;
+            case "hard":
+                line = HARD;
+                break;
+            default:
+                line = PATHOLOGICAL;
+                break;
+        }
+        puzzle = BoardCodec.readLine(line.getBytes(StandardCharsets.US_ASCII), 0);
+        solver = new SudokuSolver();
+        grader = new PuzzleGrader();
+        solution = new byte[BoardEngine.CELLS];
+        cache = new SolutionCache(1024);
+        cache.grade(puzzle); // Entrada já resolvida e classificada
+    }
+
+    @Benchmark
+    public int solveUncached() {
+        return solver.solve(puzzle.getEngine(), 1, solution);
+    }
+
+    @Benchmark
+    public Board solveCacheHit() {
+        return cache.solve(puzzle);
+    }
+
+    @Benchmark
+    public PuzzleGrader.Grade gradeUncached() {
+        return grader.grade(puzzle);
+    }
+
+    @Benchmark
+    public PuzzleGrader.Grade gradeCacheHit() {
+        return cache.grade(puzzle);
+    }
+}
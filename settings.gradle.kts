@@ -26,4 +26,5 @@ include(":app")
 include(":app")
 include(":app")
 include(":app")
- 
\ No newline at end of file
+ 
+include(":benchmark")